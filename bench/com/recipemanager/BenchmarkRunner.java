@@ -0,0 +1,45 @@
+package com.recipemanager;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of {@code jmh/target/benchmarks.jar}: runs the JMH benchmarks
+ * ({@link RepositoryBenchmark}, {@link ConcurrentReadBenchmark}, {@link DatabaseBenchmark}) with
+ * the usual JMH command line, but writes JMH's JSON result file by default
+ * ({@code jmh-result.json}) so runs from different versions can be compared with any JMH
+ * result viewer.
+ *
+ * Build with {@code mvn -B package}, then e.g.
+ * {@code java -jar jmh/target/benchmarks.jar RepositoryBenchmark -p size=100000 -rff main.json}.
+ * {@code -rf text} or another format overrides the default, {@code -h} lists every option.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.recipemanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * What {@link RecipeRepository}'s read lock costs concurrent searchRecipes calls, with and
+ * without a writer updating recipes at the same time (write-behind that never flushes, so no
+ * database is involved).
+ *
+ * With {@code cacheSize=0} every call runs the inverted index under the read lock; with the
+ * default cache, hits skip the lock and the writer's invalidations turn some of them back
+ * into misses. readLock only takes and releases an uncontended-by-writers read lock from the
+ * same threads, the floor the lock adds to every miss. The scaling between the groups only
+ * means something on a machine with at least four cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Group)
+public class ConcurrentReadBenchmark {
+
+    private static final String[] QUERIES = {"garlic", "chicken", "creamy soup", "feta", "vanilla extract", "spicy tofu"};
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"0", "256"})
+    public int cacheSize;
+
+    private RecipeRepository repository;
+    private List<Recipe> recipes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & Integer.MAX_VALUE;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Read once by the repository's constructor
+        System.setProperty("recipemanager.queryCache.size", Integer.toString(cacheSize));
+        recipes = SyntheticRecipes.generate(size, RepositoryBenchmark.SEED);
+        repository = new RecipeRepository(false);
+        repository.replaceAll(recipes);
+        repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.clearProperty("recipemanager.queryCache.size");
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public List<Recipe> readOnlySearch(Cursor cursor) {
+        return repository.searchRecipes(QUERIES[cursor.next() % QUERIES.length]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public List<Recipe> readWriteSearch(Cursor cursor) {
+        return repository.searchRecipes(QUERIES[cursor.next() % QUERIES.length]);
+    }
+
+    // Changes a summary field, so every update reindexes and invalidates under the write lock
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWriteUpdate(Cursor cursor) {
+        int next = cursor.next();
+        Recipe recipe = recipes.get(next % recipes.size());
+        recipe.setRating(next % 5 + 1);
+        repository.updateRecipeInDatabase(recipe);
+    }
+
+    @Benchmark
+    @Group("readLock")
+    @GroupThreads(4)
+    public void readLock() {
+        lock.readLock().lock();
+        lock.readLock().unlock();
+    }
+}
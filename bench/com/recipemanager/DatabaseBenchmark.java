@@ -0,0 +1,95 @@
+package com.recipemanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk insert through write-behind and a full load, against an embedded H2 database in MySQL
+ * mode ({@link H2Database}), so they run anywhere without a server. H2 has no network round
+ * trips, so compare versions with these rather than reading them as MySQL timings; to time a
+ * real server, drop the {@code H2Database} arguments and pass {@code -jvmArgsAppend
+ * -Drecipemanager.db.url=...} (with .user and .password) instead.
+ *
+ * Each invocation is single-shot: insert starts from an empty table, load from one holding
+ * {@code size} recipes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", H2Database.URL_ARG, H2Database.USER_ARG, H2Database.PASSWORD_ARG})
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EmptyTable {
+        @Param({"1000", "10000"})
+        public int size;
+
+        List<Recipe> recipes;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws SQLException {
+            H2Database.createSchema();
+            H2Database.deleteRecipes();
+            // Fresh instances: inserting assigns the generated ids to them
+            recipes = SyntheticRecipes.generate(size, RepositoryBenchmark.SEED);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledTable {
+        @Param({"1000", "10000"})
+        public int size;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            H2Database.createSchema();
+            H2Database.deleteRecipes();
+            RecipeRepository repository = new RecipeRepository(false);
+            repository.enableWriteBehind(1_000, 60_000);
+            for (Recipe recipe : SyntheticRecipes.generate(size, RepositoryBenchmark.SEED)) {
+                repository.addRecipe(recipe);
+            }
+            repository.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        DatabaseManager.shutdown();
+    }
+
+    @Benchmark
+    public RecipeRepository insert(EmptyTable table) throws SQLException {
+        RecipeRepository repository = new RecipeRepository(false);
+        repository.enableWriteBehind(1_000, 60_000);
+        for (Recipe recipe : table.recipes) {
+            repository.addRecipe(recipe);
+        }
+        repository.close();
+        return repository;
+    }
+
+    @Benchmark
+    public List<Recipe> load(FilledTable table) {
+        RecipeRepository repository = new RecipeRepository(false);
+        repository.load();
+        return repository.getAllRecipes();
+    }
+}
@@ -0,0 +1,162 @@
+package com.recipemanager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Heap used by {@link Recipe} against the layout it replaced ({@link LegacyRecipe}: String
+ * category, difficulty and serving unit read per row, a duplicate servingSize, and plain
+ * String instructions and notes), for the same {@link SyntheticRecipes} data.
+ *
+ * Every string is copied before it is handed to either layout, as JDBC returns a new String
+ * per column and row. The generated instructions are a single short line, so each recipe gets
+ * one step per ingredient appended to reach a realistic length. Both layouts keep their text
+ * resident, i.e. the state after a full load or an import. Heap is measured as the used heap
+ * difference around building the list, after repeated full GCs, so run it on a quiet JVM.
+ *
+ * Usage: {@code FootprintReport [count]}, default 100000.
+ */
+public class FootprintReport {
+
+    // Keeps the measured rows reachable through the GCs after they were built
+    private static volatile List<Object> retained;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 100_000;
+        List<Recipe> source = SyntheticRecipes.generate(count, 42L);
+
+        long legacy = footprint(() -> {
+            List<Object> rows = new ArrayList<>(count);
+            for (Recipe recipe : source) {
+                rows.add(new LegacyRecipe(recipe, instructions(recipe)));
+            }
+            return rows;
+        });
+        long compact = footprint(() -> {
+            List<Object> rows = new ArrayList<>(count);
+            for (Recipe recipe : source) {
+                rows.add(compactCopy(recipe, instructions(recipe)));
+            }
+            return rows;
+        });
+
+        System.out.printf(Locale.ROOT, "%-8s %9s %14s %12s%n", "layout", "recipes", "heap (MB)", "per recipe");
+        print("legacy", count, legacy);
+        print("compact", count, compact);
+        System.out.printf(Locale.ROOT, "saved %.1f%% (%d bytes per recipe)%n",
+                100.0 * (legacy - compact) / legacy, (legacy - compact) / count);
+    }
+
+    private static void print(String layout, int count, long bytes) {
+        System.out.printf(Locale.ROOT, "%-8s %9d %14.1f %12d%n", layout, count, bytes / 1048576.0, bytes / count);
+    }
+
+    private interface Builder {
+        List<Object> build();
+    }
+
+    // Used heap retained by what the builder returns
+    private static long footprint(Builder builder) throws InterruptedException {
+        long before = usedAfterGc();
+        retained = builder.build();
+        long after = usedAfterGc();
+        retained = null;
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static String instructions(Recipe recipe) {
+        StringBuilder text = new StringBuilder(recipe.getInstructions());
+        int step = 5;
+        for (Ingredient ingredient : recipe.parsedIngredients()) {
+            text.append('\n').append(step++).append(". Add the ").append(ingredient.getName())
+                    .append(", stir well and let it cook for ").append(2 + step % 7).append(" minutes");
+        }
+        return text.toString();
+    }
+
+    private static Recipe compactCopy(Recipe recipe, String instructions) {
+        Recipe copy = new Recipe(copy(recipe.getName()), copy(recipe.getDescription()), copy(recipe.getIngredients()),
+                copy(instructions), copy(recipe.getCategory()), recipe.getCalories(), recipe.getServings(),
+                copy(recipe.getServingUnit()), recipe.getPrepTime(), recipe.getCookTime(), copy(recipe.getDifficulty()),
+                recipe.isFavorite(), copy(recipe.getNotes()), recipe.getProtein(), recipe.getCarbs(), recipe.getFat());
+        copy.setRating(recipe.getRating());
+        copy.setTagIds(recipe.tagIds());
+        return copy;
+    }
+
+    private static String copy(String value) {
+        return value == null ? null : new String(value.toCharArray());
+    }
+
+    // The Recipe fields as they were before the compact layout
+    @SuppressWarnings("unused")
+    private static final class LegacyRecipe {
+        private int id;
+        private final String name;
+        private final String ingredients;
+        private final Ingredient[] parsedIngredients;
+        private final String category;
+        private final int calories;
+        private final int servings;
+        private final String servingUnit;
+        private final int prepTime;
+        private final int cookTime;
+        private final String difficulty;
+        private final int[] tagIds;
+        private final double rating;
+        private final int servingSize;
+        private final boolean isFavorite;
+        private final double protein;
+        private final double carbs;
+        private final double fat;
+        private volatile Text text;
+        private volatile RecipeTextLoader textLoader;
+
+        private static final class Text {
+            final String description;
+            final String instructions;
+            final String notes;
+
+            Text(String description, String instructions, String notes) {
+                this.description = description;
+                this.instructions = instructions;
+                this.notes = notes;
+            }
+        }
+
+        LegacyRecipe(Recipe recipe, String instructions) {
+            this.name = copy(recipe.getName());
+            this.ingredients = copy(recipe.getIngredients());
+            this.parsedIngredients = IngredientParser.parse(ingredients);
+            this.category = copy(recipe.getCategory());
+            this.calories = recipe.getCalories();
+            this.servings = recipe.getServings();
+            this.servingUnit = copy(recipe.getServingUnit());
+            this.prepTime = recipe.getPrepTime();
+            this.cookTime = recipe.getCookTime();
+            this.difficulty = copy(recipe.getDifficulty());
+            this.tagIds = recipe.tagIds();
+            this.rating = recipe.getRating();
+            this.servingSize = recipe.getServings();
+            this.isFavorite = recipe.isFavorite();
+            this.protein = recipe.getProtein();
+            this.carbs = recipe.getCarbs();
+            this.fat = recipe.getFat();
+            this.text = new Text(copy(recipe.getDescription()), copy(instructions), copy(recipe.getNotes()));
+        }
+    }
+}
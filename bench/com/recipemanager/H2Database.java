@@ -0,0 +1,42 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An embedded H2 database in MySQL mode, which the database benchmarks point
+ * {@link DatabaseManager} at with {@link #URL_ARG} and friends. The tables come from
+ * recipe_manager_h2.sql, which the tests load too; its categories are the schema's, which
+ * are also the ones {@link SyntheticRecipes} uses.
+ */
+final class H2Database {
+
+    static final String URL = "jdbc:h2:mem:recipe_manager;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // For @Fork(jvmArgsAppend = ...): DatabaseManager reads these once, when it is first used
+    static final String URL_ARG = "-Drecipemanager.db.url=" + URL;
+    static final String USER_ARG = "-Drecipemanager.db.user=sa";
+    static final String PASSWORD_ARG = "-Drecipemanager.db.password=";
+
+    // recipe_manager_h2.sql at the repository root, packaged into benchmarks.jar
+    private static final String SCHEMA_SCRIPT = "RUNSCRIPT FROM 'classpath:recipe_manager_h2.sql'";
+
+    private H2Database() {
+    }
+
+    // Creates whatever tables are missing; the in-memory database lives until the JVM exits
+    static synchronized void createSchema() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(SCHEMA_SCRIPT);
+        }
+    }
+
+    static void deleteRecipes() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM recipes");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.recipemanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory hot paths of {@link RecipeRepository} over {@link SyntheticRecipes} data, filled
+ * through {@link RecipeRepository#replaceAll} so no database is involved.
+ *
+ * The query inputs repeat, so searchRecipes and getRecipesByCategory mostly measure query
+ * cache hits; add {@code -jvmArgsAppend -Drecipemanager.queryCache.size=0} to time the
+ * indexes themselves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    static final long SEED = 42L;
+    private static final String[] QUERIES = {"garlic", "chicken", "creamy soup", "feta", "vanilla extract", "spicy tofu"};
+    private static final String[] TYPOS = {"garlc", "chiken", "creamy sopu", "fetta", "vanila extract", "spicy tofo"};
+    private static final String[] PREFIXES = {"c", "ch", "chi", "gar", "cr", "sp", "pa", "sal"};
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private RecipeRepository repository;
+    private final String[] names = new String[1024];
+    private final List<List<String>> pantries = new ArrayList<>();
+    private final FacetQuery[] facets = new FacetQuery[SyntheticRecipes.CATEGORIES.length];
+
+    // Per-thread invocation counter, used to vary the inputs
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & Integer.MAX_VALUE;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Recipe> recipes = SyntheticRecipes.generate(size, SEED);
+        repository = new RecipeRepository(false);
+        repository.replaceAll(recipes);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < names.length; i++) {
+            names[i] = recipes.get(random.nextInt(size)).getName();
+        }
+        for (int i = 0; i < 16; i++) {
+            List<String> pantry = new ArrayList<>();
+            for (int p = 0; p < 25; p++) {
+                pantry.add(SyntheticRecipes.INGREDIENTS[SyntheticRecipes.skewed(random, SyntheticRecipes.INGREDIENTS.length)]);
+            }
+            pantries.add(pantry);
+        }
+        for (int i = 0; i < facets.length; i++) {
+            facets[i] = new FacetQuery()
+                    .category(SyntheticRecipes.CATEGORIES[i])
+                    .difficulty(SyntheticRecipes.DIFFICULTIES[i % SyntheticRecipes.DIFFICULTIES.length])
+                    .nutrition(new NutritionFilter().atMost(Nutrient.CALORIES, 500));
+        }
+    }
+
+    @Benchmark
+    public List<Recipe> searchRecipes(Cursor cursor) {
+        return repository.searchRecipes(QUERIES[cursor.next() % QUERIES.length]);
+    }
+
+    @Benchmark
+    public Recipe findByName(Cursor cursor) {
+        return repository.findByName(names[cursor.next() & (names.length - 1)]);
+    }
+
+    @Benchmark
+    public List<Recipe> getRecipesByCategory(Cursor cursor) {
+        return repository.getRecipesByCategory(SyntheticRecipes.CATEGORIES[cursor.next() % SyntheticRecipes.CATEGORIES.length]);
+    }
+
+    @Benchmark
+    public List<String> suggest(Cursor cursor) {
+        return repository.suggest(PREFIXES[cursor.next() % PREFIXES.length], 10);
+    }
+
+    @Benchmark
+    public List<ScoredRecipe> searchRanked(Cursor cursor) {
+        return repository.searchRanked(QUERIES[cursor.next() % QUERIES.length], 20);
+    }
+
+    @Benchmark
+    public List<Recipe> searchFuzzy(Cursor cursor) {
+        return repository.searchFuzzy(TYPOS[cursor.next() % TYPOS.length], 2, 20);
+    }
+
+    @Benchmark
+    public List<Recipe> filterRecipes(Cursor cursor) {
+        return repository.filterRecipes(facets[cursor.next() % facets.length]);
+    }
+
+    @Benchmark
+    public FacetCounts facetCounts(Cursor cursor) {
+        return repository.facetCounts(facets[cursor.next() % facets.length]);
+    }
+
+    @Benchmark
+    public List<PantryMatch> matchPantry(Cursor cursor) {
+        return repository.matchPantry(pantries.get(cursor.next() & 15), 2, 20);
+    }
+}
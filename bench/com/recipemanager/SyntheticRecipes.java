@@ -0,0 +1,136 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of realistic-looking recipes for benchmarks. The same seed and
+ * count always give the same recipes, so runs on different versions measure the same data.
+ *
+ * Ingredient lines follow the shapes found in recipe_manager_full.sql ("2 cups flour",
+ * "1/2 tsp salt", "200g feta cheese", "Salt and pepper to taste"), drawn from a skewed
+ * distribution so common ingredients appear in many recipes and rare ones in few.
+ */
+final class SyntheticRecipes {
+
+    static final String[] CATEGORIES = {
+            "Breakfast", "Lunch", "Dinner", "Appetizers", "Soups & Stews", "Main Dishes", "Side Dishes",
+            "Salads", "Desserts", "Snacks", "Beverages", "Baked Goods", "Vegetarian", "Vegan", "Gluten-Free",
+            "Low-Carb", "Keto", "Mediterranean", "Asian Cuisine", "Italian Cuisine", "Mexican Cuisine",
+            "Quick & Easy", "Slow Cooker", "Holiday Specials", "Other"
+    };
+
+    static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    // Roughly ordered from most to least common
+    static final String[] INGREDIENTS = {
+            "salt", "olive oil", "garlic", "onion", "butter", "eggs", "flour", "sugar", "black pepper", "milk",
+            "water", "tomatoes", "lemon juice", "chicken breasts", "carrots", "parsley", "basil", "rice",
+            "cheddar cheese", "parmesan cheese", "potatoes", "bell pepper", "honey", "soy sauce", "ginger",
+            "cream", "baking powder", "vanilla extract", "cinnamon", "paprika", "cumin", "oregano", "thyme",
+            "spinach", "mushrooms", "celery", "beef", "ground beef", "pork chops", "salmon fillets", "shrimp",
+            "tofu", "chickpeas", "black beans", "lentils", "quinoa", "pasta", "spaghetti", "tortillas",
+            "bread crumbs", "yogurt", "sour cream", "mozzarella", "feta cheese", "cucumber", "red onion",
+            "zucchini", "eggplant", "broccoli", "cauliflower", "corn", "green peas", "avocado", "lime",
+            "cilantro", "chili flakes", "coconut milk", "curry powder", "brown sugar", "maple syrup",
+            "oats", "almonds", "walnuts", "raisins", "dark chocolate", "cocoa powder", "strawberries",
+            "blueberries", "bananas", "apples", "orange zest", "vinegar", "balsamic vinegar", "mustard",
+            "mayonnaise", "ketchup", "worcestershire sauce", "chicken stock", "vegetable stock", "white wine",
+            "red wine", "bacon", "ham", "sausage", "turkey", "kalamata olives", "capers", "pine nuts",
+            "sesame seeds", "sesame oil", "rice vinegar", "fish sauce", "lemongrass", "star anise",
+            "saffron", "cardamom", "nutmeg", "cloves", "bay leaves", "rosemary", "sage", "dill", "mint",
+            "chives", "scallions", "shallots", "leeks", "fennel", "artichoke hearts", "sun-dried tomatoes",
+            "pumpkin puree", "sweet potatoes", "kale", "arugula", "romaine lettuce", "croutons",
+            "caesar dressing", "english muffins", "canadian bacon", "egg yolks", "heavy cream",
+            "cream cheese", "ricotta", "gruyere", "gorgonzola", "prosciutto", "anchovies", "tuna",
+            "cod fillets", "scallops", "mussels", "clams", "duck breast", "lamb shoulder", "veal cutlets"
+    };
+
+    private static final String[] UNITS = {"cup", "cups", "tbsp", "tsp", "g", "ml", "oz", "lb", "cloves", "slices", "pinch of"};
+    private static final String[] AMOUNTS = {"1", "2", "3", "4", "1/2", "1/4", "3/4", "1 1/2", "200", "250", "500"};
+    private static final String[] ADJECTIVES = {
+            "Classic", "Spicy", "Creamy", "Crispy", "Roasted", "Grilled", "Smoky", "Zesty", "Rustic", "Quick",
+            "Hearty", "Golden", "Herbed", "Sticky", "Tangy", "Fresh", "Slow-Cooked", "Baked", "Braised", "Garlicky"
+    };
+    private static final String[] DISHES = {
+            "Pancakes", "Omelette", "Salad", "Soup", "Stew", "Curry", "Stir Fry", "Pasta", "Risotto", "Tacos",
+            "Burrito", "Wrap", "Sandwich", "Pie", "Tart", "Casserole", "Skillet", "Bowl", "Noodles", "Chili",
+            "Muffins", "Cookies", "Cake", "Smoothie", "Frittata", "Quiche", "Gratin", "Skewers", "Burger", "Pilaf"
+    };
+    private static final String[] TAGS = {
+            "vegan", "vegetarian", "gluten-free", "dairy-free", "kid-friendly", "weeknight", "meal-prep",
+            "spicy", "comfort-food", "high-protein", "low-carb", "one-pot", "budget", "holiday", "summer"
+    };
+
+    private SyntheticRecipes() {
+    }
+
+    static List<Recipe> generate(int count, long seed) {
+        return generate(count, seed, "");
+    }
+
+    // The prefix marks rows a benchmark writes to the database so it can delete them again
+    static List<Recipe> generate(int count, long seed, String namePrefix) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recipes.add(recipe(random, i, namePrefix));
+        }
+        return recipes;
+    }
+
+    private static Recipe recipe(SplittableRandom random, int index, String namePrefix) {
+        String main = INGREDIENTS[skewed(random, INGREDIENTS.length)];
+        // The index suffix keeps names unique, as the schema requires
+        String name = namePrefix + pick(random, ADJECTIVES) + " " + capitalize(main) + " " + pick(random, DISHES) + " #" + index;
+
+        StringBuilder ingredients = new StringBuilder();
+        int lines = 4 + random.nextInt(9);
+        for (int l = 0; l < lines; l++) {
+            if (l > 0) ingredients.append('\n');
+            String ingredient = l == 0 ? main : INGREDIENTS[skewed(random, INGREDIENTS.length)];
+            int shape = random.nextInt(10);
+            if (shape < 6) {
+                ingredients.append(pick(random, AMOUNTS)).append(' ').append(pick(random, UNITS)).append(' ').append(ingredient);
+            } else if (shape < 8) {
+                ingredients.append(1 + random.nextInt(6)).append(' ').append(ingredient);
+            } else if (shape < 9) {
+                ingredients.append(50 * (1 + random.nextInt(10))).append("g ").append(ingredient);
+            } else {
+                ingredients.append(capitalize(ingredient)).append(" to taste");
+            }
+        }
+
+        int calories = 80 + random.nextInt(900);
+        int prep = 5 * (1 + random.nextInt(12));
+        int cook = 5 * random.nextInt(25);
+        Recipe recipe = new Recipe(name,
+                "A " + name.toLowerCase() + " that is easy to make at home.",
+                ingredients.toString(),
+                "1. Prepare the ingredients\n2. Cook the " + main + "\n3. Combine and season\n4. Serve warm",
+                pick(random, CATEGORIES), calories, 1 + random.nextInt(8), "serving",
+                prep, cook, pick(random, DIFFICULTIES), random.nextInt(10) == 0, "",
+                random.nextInt(60), random.nextInt(120), random.nextInt(50));
+        recipe.setRating(Math.round(random.nextDouble() * 50) / 10.0);
+        int tags = random.nextInt(4);
+        for (int t = 0; t < tags; t++) {
+            recipe.addTag(pick(random, TAGS));
+        }
+        return recipe;
+    }
+
+    // Zipf-like: index 0 is the most likely
+    static int skewed(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return (int) Math.min(size - 1, Math.floor(size * u * u * u));
+    }
+
+    static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
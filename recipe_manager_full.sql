@@ -4,6 +4,18 @@ DROP DATABASE IF EXISTS recipe_manager;
 CREATE DATABASE recipe_manager;
 USE recipe_manager;
 
+-- Table: schema_version (bump when the layout below changes)
+CREATE TABLE schema_version (
+    version INT NOT NULL PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO schema_version (version, description) VALUES
+(1, 'Initial schema'),
+(2, 'Delta sync: recipes.updated_at and recipe_tombstones'),
+(3, 'Pushdown queries: FULLTEXT and category/difficulty index on recipes');
+
 -- Table: categories
 CREATE TABLE categories (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -36,10 +48,31 @@ CREATE TABLE recipes (
     carbs DOUBLE,
     fat DOUBLE,
     rating DOUBLE DEFAULT 0.0,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (category_id) REFERENCES categories(id),
-    FOREIGN KEY (difficulty_id) REFERENCES difficulty_levels(id)
+    FOREIGN KEY (difficulty_id) REFERENCES difficulty_levels(id),
+    INDEX idx_recipes_updated_at (updated_at),
+    -- Pushdown mode (RecipeRepository.queryDatabase): category filters seek on this index and
+    -- difficulty-only filters on the one the difficulty_id foreign key creates, both paged by
+    -- id, which InnoDB appends to every secondary index. This index also backs the category_id
+    -- foreign key, so that one gets no single-column index of its own.
+    INDEX idx_recipes_category_difficulty (category_id, difficulty_id),
+    FULLTEXT INDEX ft_recipes_name_ingredients (name, ingredients)
+);
+
+-- Table: recipe_tombstones (deleted recipes, read by RecipeRepository.refresh)
+CREATE TABLE recipe_tombstones (
+    recipe_id INT NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_recipe_tombstones_deleted_at (deleted_at)
 );
 
+CREATE TRIGGER recipes_after_delete AFTER DELETE ON recipes
+FOR EACH ROW
+    REPLACE INTO recipe_tombstones (recipe_id, name, deleted_at)
+    VALUES (OLD.id, OLD.name, CURRENT_TIMESTAMP(3));
+
 -- Table: tags
 CREATE TABLE tags (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -112,6 +145,23 @@ VALUES
  (SELECT id FROM difficulty_levels WHERE label = 'Easy'), FALSE, '', 10, 20, 10, 0.0);
 
 
+-- Upgrading an existing version 1 database to version 2 (without recreating it):
+--   ALTER TABLE recipes
+--       ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+--       ADD INDEX idx_recipes_updated_at (updated_at);
+--   then create schema_version, recipe_tombstones and recipes_after_delete as above.
+--
+-- Upgrading a version 2 database to version 3 (its foreign keys already created the
+-- single-column category_id and difficulty_id indexes; keep the difficulty_id one):
+--   ALTER TABLE recipes
+--       ADD INDEX idx_recipes_category_difficulty (category_id, difficulty_id),
+--       ADD FULLTEXT INDEX ft_recipes_name_ingredients (name, ingredients);
+--   The composite index now backs the category_id foreign key, so its single-column index is
+--   redundant; SHOW INDEX FROM recipes gives its name, then DROP INDEX it.
+--   INSERT INTO schema_version (version, description)
+--   VALUES (3, 'Pushdown queries: FULLTEXT and category/difficulty index on recipes');
+
+
 CREATE USER 'recipe_app_user'@'localhost' IDENTIFIED BY 'strongpassword123';
 
 GRANT ALL PRIVILEGES ON recipe_manager.* TO 'recipe_app_user'@'localhost';
@@ -0,0 +1,70 @@
+-- The recipe_manager schema for an embedded H2 database in MySQL mode, used by the tests and
+-- the database benchmarks. Same tables, columns and keys as recipe_manager_full.sql, without
+-- what H2 cannot run: the tombstone trigger, the FULLTEXT index and the sample recipes.
+-- Safe to run on every connection (RUNSCRIPT in the JDBC URL's INIT): it only adds what is missing.
+
+CREATE TABLE IF NOT EXISTS categories (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS difficulty_levels (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    label VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS recipes (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description TEXT,
+    ingredients TEXT,
+    instructions TEXT,
+    category_id INT,
+    calories INT,
+    servings INT,
+    serving_unit VARCHAR(50),
+    prep_time INT,
+    cook_time INT,
+    difficulty_id INT,
+    is_favorite BOOLEAN DEFAULT FALSE,
+    notes TEXT,
+    protein DOUBLE,
+    carbs DOUBLE,
+    fat DOUBLE,
+    rating DOUBLE DEFAULT 0.0,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (category_id) REFERENCES categories(id),
+    FOREIGN KEY (difficulty_id) REFERENCES difficulty_levels(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_recipes_updated_at ON recipes (updated_at);
+CREATE INDEX IF NOT EXISTS idx_recipes_category_difficulty ON recipes (category_id, difficulty_id);
+
+CREATE TABLE IF NOT EXISTS recipe_tombstones (
+    recipe_id INT NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+CREATE TABLE IF NOT EXISTS tags (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS recipe_tags (
+    recipe_id INT NOT NULL,
+    tag_id INT NOT NULL,
+    PRIMARY KEY (recipe_id, tag_id),
+    FOREIGN KEY (recipe_id) REFERENCES recipes(id) ON DELETE CASCADE,
+    FOREIGN KEY (tag_id) REFERENCES tags(id) ON DELETE CASCADE
+);
+
+MERGE INTO difficulty_levels (label) KEY (label) VALUES ('Easy'), ('Medium'), ('Hard');
+
+MERGE INTO categories (name) KEY (name) VALUES
+('Breakfast'), ('Lunch'), ('Dinner'), ('Appetizers'), ('Soups & Stews'),
+('Main Dishes'), ('Side Dishes'), ('Salads'), ('Desserts'), ('Snacks'),
+('Beverages'), ('Baked Goods'), ('Vegetarian'), ('Vegan'), ('Gluten-Free'),
+('Low-Carb'), ('Keto'), ('Mediterranean'), ('Asian Cuisine'),
+('Italian Cuisine'), ('Mexican Cuisine'), ('Quick & Easy'),
+('Slow Cooker'), ('Holiday Specials'), ('Other');
@@ -0,0 +1,190 @@
+package com.recipemanager;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Non-blocking facade over {@link RecipeRepository} for the UI.
+ *
+ * Every call runs on its own virtual thread and returns a {@link CompletableFuture}, so JDBC
+ * latency never lands on the JavaFX Application Thread. Cancelling a returned future also
+ * interrupts the task behind it, which lets callers drop superseded requests such as a
+ * search the user has already typed past. The repository is thread-safe, so tasks run
+ * concurrently.
+ */
+public class AsyncRecipeRepository implements AutoCloseable {
+
+    private final RecipeRepository repository;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AsyncRecipeRepository(RecipeRepository repository) {
+        this.repository = repository;
+    }
+
+    public RecipeRepository getRepository() {
+        return repository;
+    }
+
+    public CompletableFuture<Void> load() {
+        return run(repository::load);
+    }
+
+    // Completes with true when the snapshot was used, false after a fallback to the database
+    public CompletableFuture<Boolean> openSnapshot(Path file) {
+        return supply(() -> repository.openSnapshot(file));
+    }
+
+    public CompletableFuture<Void> reconcileSnapshot(Path file) {
+        return run(() -> repository.reconcileSnapshot(file));
+    }
+
+    public CompletableFuture<Void> refresh() {
+        return run(repository::refresh);
+    }
+
+    public CompletableFuture<List<Recipe>> getAllRecipes() {
+        return supply(repository::getAllRecipes);
+    }
+
+    public CompletableFuture<List<Recipe>> searchRecipes(String query) {
+        return supply(() -> repository.searchRecipes(query));
+    }
+
+    public CompletableFuture<List<ScoredRecipe>> searchRanked(String query, int limit) {
+        return supply(() -> repository.searchRanked(query, limit));
+    }
+
+    public CompletableFuture<List<Recipe>> searchFuzzy(String query, int maxEdits, int limit) {
+        return supply(() -> repository.searchFuzzy(query, maxEdits, limit));
+    }
+
+    public CompletableFuture<Void> indexFullText() {
+        return run(repository::indexFullText);
+    }
+
+    public CompletableFuture<List<String>> suggest(String prefix, int limit) {
+        return supply(() -> repository.suggest(prefix, limit));
+    }
+
+    public CompletableFuture<List<Recipe>> getRecipesByCategory(String category) {
+        return supply(() -> repository.getRecipesByCategory(category));
+    }
+
+    public CompletableFuture<List<Recipe>> filterRecipes(FacetQuery query) {
+        return supply(() -> repository.filterRecipes(query));
+    }
+
+    public CompletableFuture<FacetCounts> facetCounts(FacetQuery query) {
+        return supply(() -> repository.facetCounts(query));
+    }
+
+    public CompletableFuture<List<Recipe>> filterByNutrition(NutritionFilter filter) {
+        return supply(() -> repository.filterByNutrition(filter));
+    }
+
+    public CompletableFuture<NutritionStats> nutritionStats(Nutrient nutrient, NutritionFilter filter, int histogramBuckets) {
+        return supply(() -> repository.nutritionStats(nutrient, filter, histogramBuckets));
+    }
+
+    public CompletableFuture<List<PantryMatch>> matchPantry(Collection<String> pantry, int maxMissing, int limit) {
+        return supply(() -> repository.matchPantry(pantry, maxMissing, limit));
+    }
+
+    public CompletableFuture<Recipe> findByName(String name) {
+        return supply(() -> repository.findByName(name));
+    }
+
+    // Resolves a recipe by name with its description, instructions and notes already loaded
+    public CompletableFuture<Recipe> findWithDetails(String name) {
+        return supply(() -> {
+            Recipe recipe = repository.findByName(name);
+            if (recipe != null) {
+                repository.loadDetails(List.of(recipe));
+            }
+            return recipe;
+        });
+    }
+
+    public CompletableFuture<RecipePage> queryDatabase(FacetQuery query, int afterId, int pageSize) {
+        return supply(() -> repository.queryDatabase(query, afterId, pageSize));
+    }
+
+    public CompletableFuture<Recipe> findInDatabase(String name) {
+        return supply(() -> repository.findInDatabase(name));
+    }
+
+    // findWithDetails for pushdown mode: the recipe comes from the database, not from memory
+    public CompletableFuture<Recipe> findInDatabaseWithDetails(String name) {
+        return supply(() -> {
+            Recipe recipe = repository.findInDatabase(name);
+            if (recipe != null) {
+                repository.loadDetails(List.of(recipe));
+            }
+            return recipe;
+        });
+    }
+
+    public CompletableFuture<List<String>> suggestFromDatabase(String prefix, int limit) {
+        return supply(() -> repository.suggestFromDatabase(prefix, limit));
+    }
+
+    public CompletableFuture<Void> addRecipe(Recipe recipe) {
+        return run(() -> repository.addRecipe(recipe));
+    }
+
+    public CompletableFuture<Void> removeRecipe(Recipe recipe) {
+        return run(() -> repository.removeRecipe(recipe));
+    }
+
+    public CompletableFuture<Void> updateRecipe(Recipe recipe) {
+        return run(() -> repository.updateRecipeInDatabase(recipe));
+    }
+
+    // Stops accepting work and flushes any write-behind queue
+    @Override
+    public void close() throws SQLException {
+        executor.shutdown();
+        repository.close();
+    }
+
+    private CompletableFuture<Void> run(Runnable action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> supply(Callable<T> task) {
+        Task<T> result = new Task<>();
+        result.running = executor.submit(() -> {
+            if (result.isDone()) return;
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    private static final class Task<T> extends CompletableFuture<T> {
+        volatile Future<?> running;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> task = running;
+            if (cancelled && task != null) {
+                task.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+}
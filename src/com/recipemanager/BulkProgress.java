@@ -0,0 +1,36 @@
+package com.recipemanager;
+
+/**
+ * Progress of a {@link RecipeBulkIO} import or export: rows written so far, rows skipped as
+ * invalid, and the throughput since the start. The final instance is the operation's result.
+ */
+public class BulkProgress {
+
+    private final long rows;
+    private final long skipped;
+    private final long elapsedMillis;
+    private final boolean done;
+
+    BulkProgress(long rows, long skipped, long elapsedMillis, boolean done) {
+        this.rows = rows;
+        this.skipped = skipped;
+        this.elapsedMillis = elapsedMillis;
+        this.done = done;
+    }
+
+    public long getRows() { return rows; }
+    public long getSkipped() { return skipped; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public boolean isDone() { return done; }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return rows + " rows" + (skipped > 0 ? " (" + skipped + " skipped)" : "") +
+               " in " + String.format("%.1f", elapsedMillis / 1000.0) + " s, " +
+               String.format("%.0f", getRowsPerSecond()) + " rows/s";
+    }
+}
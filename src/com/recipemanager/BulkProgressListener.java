@@ -0,0 +1,10 @@
+package com.recipemanager;
+
+/**
+ * Receives {@link BulkProgress} updates from {@link RecipeBulkIO}: after every commit of an
+ * import, every batch of an export, and once more when the operation finishes.
+ */
+@FunctionalInterface
+public interface BulkProgressListener {
+    void onProgress(BulkProgress progress);
+}
@@ -0,0 +1,267 @@
+package com.recipemanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams flat records out of a JSON Lines or CSV file, one at a time, so an import never
+ * holds more than the current record in memory.
+ *
+ * Records come back as key -> text maps with keys lowercased and underscores removed
+ * ({@code "serving_unit"}, {@code "servingUnit"} and {@code "ServingUnit"} all become
+ * {@code "servingunit"}). JSON numbers and booleans keep their literal text, {@code null}
+ * maps to a missing key and a JSON array of strings is joined with {@code ';'}, the same
+ * separator CSV files use for tags.
+ */
+abstract class BulkRecordReader implements Closeable {
+
+    static final char LIST_SEPARATOR = ';';
+
+    protected final Reader in;
+    private int peeked = -2;
+    // 1-based line of the record being read, for error messages
+    protected long line = 1;
+
+    BulkRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    static BulkRecordReader jsonLines(Reader in) {
+        return new JsonLines(in);
+    }
+
+    static BulkRecordReader csv(Reader in) {
+        return new Csv(in);
+    }
+
+    // Next record, or null at end of input
+    abstract Map<String, String> next() throws IOException;
+
+    long line() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    static String key(String name) {
+        return name.replace("_", "").trim().toLowerCase();
+    }
+
+    protected int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') line++;
+        return c;
+    }
+
+    protected int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    protected IOException error(String message) {
+        return new IOException("Line " + line + ": " + message);
+    }
+
+    // One flat JSON object per line
+    private static final class JsonLines extends BulkRecordReader {
+
+        private final StringBuilder text = new StringBuilder();
+
+        JsonLines(Reader in) {
+            super(in);
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            int c = skipWhitespace();
+            if (c < 0) return null;
+            if (c != '{') throw error("expected '{'");
+            read();
+
+            Map<String, String> record = new HashMap<>();
+            c = skipWhitespace();
+            if (c == '}') {
+                read();
+                return record;
+            }
+            while (true) {
+                if (skipWhitespace() != '"') throw error("expected a field name");
+                read();
+                String name = readString();
+                if (skipWhitespace() != ':') throw error("expected ':' after \"" + name + "\"");
+                read();
+                String value = readValue();
+                if (value != null) {
+                    record.put(key(name), value);
+                }
+                c = skipWhitespace();
+                read();
+                if (c == '}') return record;
+                if (c != ',') throw error("expected ',' or '}'");
+            }
+        }
+
+        private String readValue() throws IOException {
+            int c = skipWhitespace();
+            if (c == '"') {
+                read();
+                return readString();
+            }
+            if (c == '[') {
+                read();
+                StringBuilder joined = new StringBuilder();
+                if (skipWhitespace() == ']') {
+                    read();
+                    return "";
+                }
+                while (true) {
+                    String item = readValue();
+                    if (item != null) {
+                        if (joined.length() > 0) joined.append(LIST_SEPARATOR);
+                        joined.append(item);
+                    }
+                    c = skipWhitespace();
+                    read();
+                    if (c == ']') return joined.toString();
+                    if (c != ',') throw error("expected ',' or ']'");
+                }
+            }
+            if (c == '{') throw error("nested objects are not supported");
+
+            // number, true, false or null
+            text.setLength(0);
+            while ((c = peek()) >= 0 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                text.append((char) read());
+            }
+            if (text.length() == 0) throw error("expected a value");
+            String literal = text.toString();
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString() throws IOException {
+            text.setLength(0);
+            while (true) {
+                int c = read();
+                if (c < 0 || c == '\n') throw error("unterminated string");
+                if (c == '"') return text.toString();
+                if (c != '\\') {
+                    text.append((char) c);
+                    continue;
+                }
+                c = read();
+                switch (c) {
+                    case 'n': text.append('\n'); break;
+                    case 't': text.append('\t'); break;
+                    case 'r': text.append('\r'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) throw error("bad \\u escape");
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    case -1: throw error("unterminated string");
+                    default: text.append((char) c);
+                }
+            }
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c;
+            while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+                read();
+            }
+            return c;
+        }
+    }
+
+    // RFC 4180: header row, optional double quotes, "" inside quotes, line breaks inside quotes
+    private static final class Csv extends BulkRecordReader {
+
+        private final StringBuilder field = new StringBuilder();
+        private List<String> header;
+
+        Csv(Reader in) {
+            super(in);
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            if (header == null) {
+                List<String> names = readRow();
+                if (names == null) return null;
+                header = new ArrayList<>(names.size());
+                for (String name : names) {
+                    header.add(key(name));
+                }
+            }
+            List<String> row;
+            do {
+                row = readRow();
+                if (row == null) return null;
+            } while (row.size() == 1 && row.get(0).isEmpty());
+
+            if (row.size() > header.size()) throw error("more fields than the header has columns");
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < row.size(); i++) {
+                if (!row.get(i).isEmpty()) {
+                    record.put(header.get(i), row.get(i));
+                }
+            }
+            return record;
+        }
+
+        private List<String> readRow() throws IOException {
+            if (peek() < 0) return null;
+            List<String> row = new ArrayList<>();
+            while (true) {
+                field.setLength(0);
+                int c = peek();
+                if (c == '"') {
+                    read();
+                    while (true) {
+                        c = read();
+                        if (c < 0) throw error("unterminated quoted field");
+                        if (c == '"') {
+                            if (peek() != '"') break;
+                            read();
+                        }
+                        field.append((char) c);
+                    }
+                    c = read();
+                } else {
+                    while ((c = read()) >= 0 && c != ',' && c != '\n' && c != '\r') {
+                        field.append((char) c);
+                    }
+                }
+                row.add(field.toString());
+                if (c == '\r' && peek() == '\n') {
+                    c = read();
+                }
+                if (c == ',') continue;
+                if (c < 0 || c == '\n' || c == '\r') return row;
+                throw error("unexpected character after a quoted field");
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.recipemanager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Byte encoding for long, rarely read recipe text (instructions, notes). The first byte tells
+ * the format: {@link #RAW} is plain UTF-8, {@link #DEFLATED} is the UTF-8 length as four bytes
+ * followed by the deflated UTF-8. Text shorter than {@link #MIN_DEFLATE_BYTES}, or that does
+ * not shrink, is stored raw.
+ */
+final class CompressedText {
+
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+    static final int MIN_DEFLATE_BYTES = 128;
+
+    private static final byte[] EMPTY = {RAW};
+
+    private CompressedText() {
+    }
+
+    static byte[] pack(String text) {
+        if (text == null) return null;
+        if (text.isEmpty()) return EMPTY;
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_DEFLATE_BYTES) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(utf8);
+                deflater.finish();
+                byte[] out = new byte[5 + utf8.length];
+                int written = 5;
+                while (!deflater.finished() && written < out.length) {
+                    written += deflater.deflate(out, written, out.length - written);
+                }
+                if (deflater.finished() && written < utf8.length + 1) {
+                    out[0] = DEFLATED;
+                    out[1] = (byte) (utf8.length >>> 24);
+                    out[2] = (byte) (utf8.length >>> 16);
+                    out[3] = (byte) (utf8.length >>> 8);
+                    out[4] = (byte) utf8.length;
+                    return Arrays.copyOf(out, written);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] raw = new byte[utf8.length + 1];
+        raw[0] = RAW;
+        System.arraycopy(utf8, 0, raw, 1, utf8.length);
+        return raw;
+    }
+
+    static String unpack(byte[] packed) {
+        if (packed == null) return null;
+        if (packed[0] == RAW) {
+            return new String(packed, 1, packed.length - 1, StandardCharsets.UTF_8);
+        }
+        int length = (packed[1] & 0xff) << 24 | (packed[2] & 0xff) << 16 | (packed[3] & 0xff) << 8 | (packed[4] & 0xff);
+        byte[] utf8 = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed, 5, packed.length - 5);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(utf8, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Truncated compressed text: " + read + " of " + length + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
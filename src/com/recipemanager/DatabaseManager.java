@@ -1,22 +1,312 @@
 package com.recipemanager;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseManager {
     // Updated to match your exact configuration
-    private static final String URL = "jdbc:mysql://localhost:3306/recipe_manager";
-    private static final String USER = "recipe_app_user";
-    private static final String PASSWORD = "strongpassword123";
+    // rewriteBatchedStatements lets Connector/J send a JDBC batch as multi-row statements
+    // instead of one round trip per row (write-behind and bulk import depend on it).
+    // Prepared statements are prepared once on the server and cached per physical connection,
+    // which the pool keeps open, so repeated queries skip parsing and planning; the SQL
+    // limit is raised because pushdown queries are longer than the 256 character default
+    // -Drecipemanager.db.url, .user and .password point elsewhere, e.g. the benchmarks' embedded
+    // H2 database in MySQL mode
+    private static final String URL = System.getProperty("recipemanager.db.url",
+            "jdbc:mysql://localhost:3306/recipe_manager?rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=4096");
+    private static final String USER = System.getProperty("recipemanager.db.user", "recipe_app_user");
+    private static final String PASSWORD = System.getProperty("recipemanager.db.password", "strongpassword123");
+    private static final boolean MYSQL = URL.startsWith("jdbc:mysql:");
+    private static final int STREAM_FETCH_SIZE = 1_000;
 
-    private static Connection connection;
+    // Pool settings, overridable with -Drecipemanager.db.pool.<name>=<value>
+    private static final int MIN_IDLE = Integer.getInteger("recipemanager.db.pool.min", 2);
+    private static final int MAX_SIZE = Math.max(1, Integer.getInteger("recipemanager.db.pool.max", 10));
+    private static final long ACQUIRE_TIMEOUT_MS = Long.getLong("recipemanager.db.pool.acquireTimeoutMs", 5_000);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("recipemanager.db.pool.idleTimeoutMs", 300_000);
+    private static final long EVICTION_INTERVAL_MS = Long.getLong("recipemanager.db.pool.evictionIntervalMs", 30_000);
 
+    // Connections returned within this window are handed out again without a validation ping.
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final Semaphore permits = new Semaphore(MAX_SIZE, true);
+    private static final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private static final AtomicInteger open = new AtomicInteger();
+
+    private static final AtomicLong created = new AtomicLong();
+    private static final AtomicLong destroyed = new AtomicLong();
+    private static final AtomicLong borrowed = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    private static final AtomicLong validationFailures = new AtomicLong();
+    private static final AtomicLong acquireNanos = new AtomicLong();
+
+    private static ScheduledExecutorService evictor;
+
+    /**
+     * Makes the statement stream a large result instead of buffering it. Connector/J streams
+     * rows one at a time only for a fetch size of Integer.MIN_VALUE, which other drivers reject.
+     */
+    static void streamResults(Statement stmt) throws SQLException {
+        stmt.setFetchSize(MYSQL ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it hands it back to the pool instead of
+     * dropping the socket, so callers keep using try-with-resources as before.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        long start = System.nanoTime();
+        startEvictor();
+        try {
+            if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                Metrics.CONNECTION.recordFailure(start);
+                throw new SQLTimeoutException("Timed out after " + ACQUIRE_TIMEOUT_MS
+                        + " ms waiting for a database connection (pool max " + MAX_SIZE + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Metrics.CONNECTION.recordFailure(start);
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null && !isUsable(pooled)) {
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = create();
+            }
+            borrowed.incrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            acquireNanos.addAndGet(elapsed);
+            Metrics.CONNECTION.recordNanos(elapsed);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            Metrics.CONNECTION.recordFailure(start);
+            throw e;
+        }
+    }
+
+    public static PoolStats getPoolStats() {
+        int idleCount = idle.size();
+        long borrowCount = borrowed.get();
+        return new PoolStats(open.get(), idleCount, MAX_SIZE - permits.availablePermits(),
+                permits.getQueueLength(), created.get(), destroyed.get(), borrowCount,
+                timeouts.get(), validationFailures.get(),
+                borrowCount == 0 ? 0 : acquireNanos.get() / borrowCount / 1_000);
+    }
+
+    // Closes idle connections and stops the eviction thread; borrowed ones close on return.
+    public static synchronized void shutdown() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private static synchronized void startEvictor() {
+        if (evictor != null) return;
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(DatabaseManager::maintain,
+                EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Drops connections idle past the timeout (keeping MIN_IDLE) and tops the pool back up.
+    private static void maintain() {
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MS);
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > MIN_IDLE) {
+            PooledConnection pooled = oldestFirst.next();
+            if (now - pooled.lastReturned > idleTimeoutNanos && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        while (idle.size() < MIN_IDLE && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.raw.isClosed()) return false;
+            if (System.nanoTime() - pooled.lastReturned < VALIDATION_BYPASS_NANOS) return true;
+            if (pooled.raw.isValid(VALIDATION_TIMEOUT_SECONDS)) return true;
+        } catch (SQLException ignored) {
+            // treated as invalid below
+        }
+        validationFailures.incrementAndGet();
+        return false;
+    }
+
+    private static PooledConnection create() throws SQLException {
+        Connection raw = DriverManager.getConnection(URL, USER, PASSWORD);
+        open.incrementAndGet();
+        created.incrementAndGet();
+        return new PooledConnection(raw);
+    }
+
+    private static void destroy(PooledConnection pooled) {
+        open.decrementAndGet();
+        destroyed.incrementAndGet();
+        try {
+            pooled.raw.close();
+        } catch (SQLException ignored) {
+            // already broken, nothing left to release
+        }
+    }
+
+    private static void release(PooledConnection pooled) {
+        try {
+            if (pooled.raw.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.raw.getAutoCommit()) {
+                pooled.raw.rollback();
+                pooled.raw.setAutoCommit(true);
+            }
+            pooled.lastReturned = System.nanoTime();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static final class PooledConnection {
+        final Connection raw;
+        volatile long lastReturned = System.nanoTime();
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        // Each lease gets its own proxy so a stale handle cannot return the connection twice.
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this));
+        }
+    }
+
+    private static final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.raw + (returned ? ", returned]" : "]");
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    public static final class PoolStats {
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long created;
+        private final long destroyed;
+        private final long borrowed;
+        private final long timeouts;
+        private final long validationFailures;
+        private final long avgAcquireMicros;
+
+        PoolStats(int total, int idle, int active, int waiting, long created, long destroyed,
+                  long borrowed, long timeouts, long validationFailures, long avgAcquireMicros) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.borrowed = borrowed;
+            this.timeouts = timeouts;
+            this.validationFailures = validationFailures;
+            this.avgAcquireMicros = avgAcquireMicros;
+        }
+
+        public int getTotal() { return total; }
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public int getWaiting() { return waiting; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getBorrowed() { return borrowed; }
+        public long getTimeouts() { return timeouts; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getAvgAcquireMicros() { return avgAcquireMicros; }
+
+        @Override
+        public String toString() {
+            return "total=" + total + ", idle=" + idle + ", active=" + active + ", waiting=" + waiting +
+                   ", created=" + created + ", destroyed=" + destroyed + ", borrowed=" + borrowed +
+                   ", timeouts=" + timeouts + ", validationFailures=" + validationFailures +
+                   ", avgAcquire=" + avgAcquireMicros + "us";
         }
-        return connection;
     }
 
     // Test connection method (run this first!)
@@ -24,18 +314,20 @@ public class DatabaseManager {
         try {
             Connection conn = getConnection();
             System.out.println("✅ Connected to MySQL successfully!");
-            
+
             // Verify tables are accessible
             System.out.println("Testing tables...");
             conn.createStatement().executeQuery("SELECT 1 FROM recipes LIMIT 1");
             conn.createStatement().executeQuery("SELECT 1 FROM categories LIMIT 1");
             conn.createStatement().executeQuery("SELECT 1 FROM difficulty_levels LIMIT 1");
             System.out.println("✅ All required tables are accessible");
-            
+
             conn.close();
+            System.out.println("Pool: " + getPoolStats());
+            shutdown();
         } catch (SQLException e) {
             System.out.println("❌ Con00nection failed: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.recipemanager;
+
+/**
+ * The rows of {@code difficulty_levels}. Recipes keep one of these constants instead of their
+ * own copy of the label.
+ */
+public enum Difficulty {
+    EASY("Easy"),
+    MEDIUM("Medium"),
+    HARD("Hard");
+
+    private final String label;
+
+    Difficulty(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Case-insensitive match on the label; null stays null. Any other label becomes
+     * {@link #MEDIUM}, the default bulk import also falls back to, since the database has
+     * no row to store it under.
+     */
+    public static Difficulty fromLabel(String label) {
+        if (label == null) return null;
+        for (Difficulty difficulty : values()) {
+            if (difficulty.label.equalsIgnoreCase(label)) return difficulty;
+        }
+        return MEDIUM;
+    }
+}
@@ -0,0 +1,42 @@
+package com.recipemanager;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Per-value recipe counts for each facet under a {@link FacetQuery}.
+ *
+ * Category, difficulty and favorite counts ignore that facet's own selection, so they tell
+ * the UI how many recipes each alternative value would give. Tag counts are taken within the
+ * full result because selecting another tag narrows it further.
+ */
+public class FacetCounts {
+
+    private final int total;
+    private final Map<String, Integer> categories;
+    private final Map<String, Integer> difficulties;
+    private final Map<String, Integer> tags;
+    private final int favorites;
+
+    FacetCounts(int total, Map<String, Integer> categories, Map<String, Integer> difficulties,
+                Map<String, Integer> tags, int favorites) {
+        this.total = total;
+        this.categories = Collections.unmodifiableMap(categories);
+        this.difficulties = Collections.unmodifiableMap(difficulties);
+        this.tags = Collections.unmodifiableMap(tags);
+        this.favorites = favorites;
+    }
+
+    // Number of recipes matching the whole query
+    public int getTotal() { return total; }
+    public Map<String, Integer> getCategoryCounts() { return categories; }
+    public Map<String, Integer> getDifficultyCounts() { return difficulties; }
+    public Map<String, Integer> getTagCounts() { return tags; }
+    public int getFavoriteCount() { return favorites; }
+
+    @Override
+    public String toString() {
+        return "total=" + total + ", categories=" + categories + ", difficulties=" + difficulties +
+               ", tags=" + tags + ", favorites=" + favorites;
+    }
+}
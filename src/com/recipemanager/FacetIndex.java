@@ -0,0 +1,205 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One bitmap of recipe ordinals per category, difficulty level and tag, plus one for
+ * favorites. Filters are answered with bitmap OR within a facet and AND across facets, and
+ * counts are bitmap intersections, so neither touches the recipes themselves.
+ *
+ * Facet values are keyed case-insensitively and listed in alphabetical order; a value
+ * disappears once its last recipe is removed.
+ */
+class FacetIndex {
+
+    private enum Facet { CATEGORY, DIFFICULTY, FAVORITE, TAG }
+
+    // What an ordinal was indexed under, so removal does not depend on the recipe's current fields
+    private static final class Entry {
+        final String category;
+        final String difficulty;
+        final boolean favorite;
+        final int[] tags;
+
+        Entry(String category, String difficulty, boolean favorite, int[] tags) {
+            this.category = category;
+            this.difficulty = difficulty;
+            this.favorite = favorite;
+            this.tags = tags;
+        }
+    }
+
+    private final Map<String, BitSet> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, BitSet> difficulties = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    // Indexed by TagDictionary id
+    private BitSet[] tags = new BitSet[64];
+    private final BitSet favorites = new BitSet();
+    private final BitSet live = new BitSet();
+    private Entry[] entries = new Entry[1024];
+
+    void put(int ordinal, Recipe recipe) {
+        remove(ordinal);
+        Entry entry = new Entry(recipe.getCategory(), recipe.getDifficulty(), recipe.isFavorite(),
+                recipe.tagIds());
+        if (ordinal >= entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(ordinal + 1, entries.length * 2));
+        }
+        entries[ordinal] = entry;
+
+        add(categories, entry.category, ordinal);
+        add(difficulties, entry.difficulty, ordinal);
+        for (int tag : entry.tags) {
+            if (tag >= tags.length) {
+                tags = Arrays.copyOf(tags, Math.max(tag + 1, tags.length * 2));
+            }
+            if (tags[tag] == null) {
+                tags[tag] = new BitSet();
+            }
+            tags[tag].set(ordinal);
+        }
+        favorites.set(ordinal, entry.favorite);
+        live.set(ordinal);
+    }
+
+    void remove(int ordinal) {
+        if (ordinal >= entries.length || entries[ordinal] == null) return;
+        Entry entry = entries[ordinal];
+        entries[ordinal] = null;
+
+        remove(categories, entry.category, ordinal);
+        remove(difficulties, entry.difficulty, ordinal);
+        for (int tag : entry.tags) {
+            tags[tag].clear(ordinal);
+        }
+        favorites.clear(ordinal);
+        live.clear(ordinal);
+    }
+
+    void clear() {
+        categories.clear();
+        difficulties.clear();
+        Arrays.fill(tags, null);
+        favorites.clear();
+        live.clear();
+        Arrays.fill(entries, null);
+    }
+
+    // Copy of the ordinals in one category; empty for an unknown category
+    BitSet category(String category) {
+        BitSet bits = category == null ? null : categories.get(category);
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    /**
+     * Ordinals matching the query's facet selections. {@code base}, when not null, holds the
+     * ordinals that already passed the text and nutrition constraints.
+     */
+    BitSet matching(FacetQuery query, BitSet base) {
+        return matching(query, base, null);
+    }
+
+    FacetCounts counts(FacetQuery query, BitSet base) {
+        BitSet all = matching(query, base, null);
+        return new FacetCounts(
+                all.cardinality(),
+                count(categories, matching(query, base, Facet.CATEGORY), query.categories),
+                count(difficulties, matching(query, base, Facet.DIFFICULTY), query.difficulties),
+                countTags(all, query.tags),
+                andCardinality(favorites, matching(query, base, Facet.FAVORITE)));
+    }
+
+    // Same as matching(query, base) but ignoring the selection of one facet
+    private BitSet matching(FacetQuery query, BitSet base, Facet ignored) {
+        BitSet result = (BitSet) live.clone();
+        if (base != null) {
+            result.and(base);
+        }
+        if (ignored != Facet.CATEGORY && !query.categories.isEmpty()) {
+            result.and(union(categories, query.categories));
+        }
+        if (ignored != Facet.DIFFICULTY && !query.difficulties.isEmpty()) {
+            result.and(union(difficulties, query.difficulties));
+        }
+        if (ignored != Facet.FAVORITE && query.favorite != null) {
+            if (query.favorite) {
+                result.and(favorites);
+            } else {
+                result.andNot(favorites);
+            }
+        }
+        if (ignored != Facet.TAG) {
+            for (String tag : query.tags) {
+                int id = TagDictionary.lookup(tag);
+                if (id < 0 || id >= tags.length || tags[id] == null) return new BitSet();
+                result.and(tags[id]);
+            }
+        }
+        return result;
+    }
+
+    // Counts every value that still has matches, plus the selected ones so the UI can show a zero
+    private static Map<String, Integer> count(Map<String, BitSet> facet, BitSet within, Set<String> selected) {
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, BitSet> value : facet.entrySet()) {
+            int count = andCardinality(value.getValue(), within);
+            if (count > 0 || selected.contains(value.getKey())) {
+                counts.put(value.getKey(), count);
+            }
+        }
+        for (String value : selected) {
+            counts.putIfAbsent(value, 0);
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> countTags(BitSet within, Set<String> selected) {
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int id = 0; id < tags.length; id++) {
+            if (tags[id] == null) continue;
+            int count = andCardinality(tags[id], within);
+            if (count > 0) {
+                counts.put(TagDictionary.name(id), count);
+            }
+        }
+        for (String value : selected) {
+            counts.putIfAbsent(value, 0);
+        }
+        return counts;
+    }
+
+    private static BitSet union(Map<String, BitSet> facet, Set<String> values) {
+        BitSet result = new BitSet();
+        for (String value : values) {
+            BitSet bits = facet.get(value);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private static int andCardinality(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+
+    private static void add(Map<String, BitSet> facet, String value, int ordinal) {
+        if (value == null) return;
+        facet.computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+    }
+
+    private static void remove(Map<String, BitSet> facet, String value, int ordinal) {
+        if (value == null) return;
+        BitSet bits = facet.get(value);
+        if (bits == null) return;
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            facet.remove(value);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.recipemanager;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Faceted recipe filter for {@link RecipeRepository#filterRecipes(FacetQuery)}.
+ *
+ * Values inside the category and difficulty facets are OR-ed, tags are AND-ed (a recipe must
+ * carry every selected tag), and the facets are AND-ed with each other and with the optional
+ * text query and nutrition ranges. Facet values compare case-insensitively.
+ */
+public class FacetQuery {
+
+    final Set<String> categories = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    final Set<String> difficulties = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    final Set<String> tags = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    Boolean favorite;
+    String text;
+    NutritionFilter nutrition;
+
+    public FacetQuery category(String... values) {
+        Collections.addAll(categories, values);
+        return this;
+    }
+
+    public FacetQuery difficulty(String... values) {
+        Collections.addAll(difficulties, values);
+        return this;
+    }
+
+    public FacetQuery tag(String... values) {
+        Collections.addAll(tags, values);
+        return this;
+    }
+
+    public FacetQuery favorite(boolean value) {
+        favorite = value;
+        return this;
+    }
+
+    // Same matching as RecipeRepository.searchRecipes; null or blank means no text constraint
+    public FacetQuery text(String query) {
+        text = query == null || query.isBlank() ? null : query;
+        return this;
+    }
+
+    public FacetQuery nutrition(NutritionFilter filter) {
+        nutrition = filter;
+        return this;
+    }
+}
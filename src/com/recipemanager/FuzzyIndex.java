@@ -0,0 +1,330 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant word index behind {@link RecipeRepository#searchFuzzy}.
+ *
+ * The vocabulary is every word of the recipe names and of the parsed ingredient names.
+ * Each word is split into the trigrams and bigrams of {@code "$" + word + "$"}, and each
+ * gram maps to the word ids containing it. Each word maps to the recipe ordinals using it. A
+ * query word only looks at vocabulary words sharing enough trigrams with it: an edit changes
+ * at most three trigrams, a transposition four. When that bound is not positive (short words,
+ * or many edits for the length), a word could share no trigram at all, and bigrams are
+ * counted instead: an edit changes at most two, a transposition three. Those candidates are
+ * verified with an edit distance bounded by the allowed number of edits, so the cost grows
+ * with the number of candidates rather than with the collection.
+ *
+ * Distances are optimal string alignment distances: Levenshtein plus adjacent
+ * transpositions, so "ceasar" is one edit from "caesar".
+ */
+class FuzzyIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    // By packed trigram or bigram: word ids containing it, valid up to the stored size
+    private final Map<Long, int[]> grams = new HashMap<>();
+    private final Map<Long, Integer> gramSizes = new HashMap<>();
+    // By word id: sorted ordinals valid up to postingSizes[id]
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+    // By ordinal: distinct sorted word ids, null when the ordinal is not indexed
+    private int[][] wordsOf = new int[1024][];
+
+    void put(int ordinal, Recipe recipe) {
+        remove(ordinal);
+        List<String> tokens = new ArrayList<>();
+        addWords(tokens, recipe.getName());
+        for (Ingredient ingredient : recipe.parsedIngredients()) {
+            addWords(tokens, ingredient.getName());
+        }
+        int[] ids = new int[tokens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = wordId(tokens.get(i));
+        }
+        ids = distinctSorted(ids);
+
+        if (ordinal >= wordsOf.length) {
+            wordsOf = Arrays.copyOf(wordsOf, Math.max(ordinal + 1, wordsOf.length * 2));
+        }
+        wordsOf[ordinal] = ids;
+        for (int id : ids) {
+            addPosting(id, ordinal);
+        }
+    }
+
+    void remove(int ordinal) {
+        if (ordinal >= wordsOf.length || wordsOf[ordinal] == null) return;
+        for (int id : wordsOf[ordinal]) {
+            removePosting(id, ordinal);
+        }
+        wordsOf[ordinal] = null;
+    }
+
+    void clear() {
+        wordIds.clear();
+        words.clear();
+        grams.clear();
+        gramSizes.clear();
+        Arrays.fill(postings, null);
+        Arrays.fill(postingSizes, 0);
+        Arrays.fill(wordsOf, null);
+    }
+
+    /**
+     * Recipes in which every query word matches a name or ingredient word within
+     * {@code maxEdits}, fewest total edits first, then insertion order. The allowed edits
+     * shrink for short words: a third of the word length (at least one), and none below
+     * three letters.
+     */
+    List<Recipe> search(String query, int maxEdits, int max, Recipe[] byOrdinal) {
+        String[] tokens = RecipeSearchIndex.tokenize(query.toLowerCase());
+        if (tokens.length == 0 || max <= 0) return new ArrayList<>();
+
+        // Per candidate slot: total distance, query words matched so far (only those at t can
+        // match word t), and best distance + 1 for the current word, 0 while unmatched
+        OrdinalSlots candidates = new OrdinalSlots(64);
+        int[] total = new int[candidates.capacity()];
+        int[] reached = new int[total.length];
+        int[] best = new int[total.length];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+
+        for (int t = 0; t < tokens.length; t++) {
+            String token = tokens[t];
+            int allowed = token.length() < 3 ? 0 : Math.min(maxEdits, Math.max(1, token.length() / 3));
+            int[] matches = matchingWords(token, allowed);
+            for (int m = 0; m < matches.length; m += 2) {
+                int id = matches[m];
+                int distance = matches[m + 1] + 1;
+                int[] list = postings[id];
+                for (int p = 0, n = postingSizes[id]; p < n; p++) {
+                    // Only the first word adds candidates; later words narrow them down
+                    int slot = t == 0 ? candidates.add(list[p]) : candidates.find(list[p]);
+                    if (slot < 0) continue;
+                    if (slot == total.length) {
+                        total = Arrays.copyOf(total, candidates.capacity());
+                        reached = Arrays.copyOf(reached, total.length);
+                        best = Arrays.copyOf(best, total.length);
+                    }
+                    if (reached[slot] != t) continue;
+                    if (best[slot] == 0) {
+                        if (t == 0) {
+                            if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                            touched[touchedCount++] = slot;
+                        }
+                        best[slot] = distance;
+                    } else if (distance < best[slot]) {
+                        best[slot] = distance;
+                    }
+                }
+            }
+            // Keep the candidates this word matched; the rest drop out for good
+            int kept = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (best[slot] == 0) continue;
+                total[slot] += best[slot] - 1;
+                best[slot] = 0;
+                reached[slot] = t + 1;
+                touched[kept++] = slot;
+            }
+            touchedCount = kept;
+            if (touchedCount == 0) break;
+        }
+
+        long[] ranked = new long[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            ranked[i] = (long) total[touched[i]] << 32 | candidates.ordinal(touched[i]);
+        }
+        Arrays.sort(ranked);
+        List<Recipe> result = new ArrayList<>(Math.min(max, ranked.length));
+        for (int i = 0; i < ranked.length && result.size() < max; i++) {
+            result.add(byOrdinal[(int) ranked[i]]);
+        }
+        return result;
+    }
+
+    // Pairs of (word id, distance) for the vocabulary words within maxEdits of the token
+    private int[] matchingWords(String token, int maxEdits) {
+        if (maxEdits == 0) {
+            Integer exact = wordIds.get(token);
+            return exact == null ? EMPTY : new int[]{exact, 0};
+        }
+
+        long[] tokenGrams = trigrams(token);
+        int needed = tokenGrams.length - 4 * maxEdits;
+        if (needed < 1) {
+            // search() allows at most a third of the word length, so this bound stays positive
+            tokenGrams = bigrams(token);
+            needed = tokenGrams.length - 3 * maxEdits;
+        }
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (long gram : tokenGrams) {
+            int[] ids = grams.get(gram);
+            if (ids == null) continue;
+            for (int i = 0, n = gramSizes.get(gram); i < n; i++) {
+                shared.merge(ids[i], 1, Integer::sum);
+            }
+        }
+
+        int[] matches = new int[16];
+        int count = 0;
+        for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+            int id = candidate.getKey();
+            if (candidate.getValue() < needed || postingSizes[id] == 0) continue;
+            String word = words.get(id);
+            if (Math.abs(word.length() - token.length()) > maxEdits) continue;
+            int distance = boundedDistance(token, word, maxEdits);
+            if (distance > maxEdits) continue;
+            if (count + 2 > matches.length) matches = Arrays.copyOf(matches, matches.length * 2);
+            matches[count++] = id;
+            matches[count++] = distance;
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Optimal string alignment distance between a and b, or {@code max + 1} as soon as it is
+     * known to exceed max. Only the diagonal band of width 2 * max + 1 is computed.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int n = a.length(), m = b.length();
+        if (Math.abs(n - m) > max) return max + 1;
+        int big = max + 1;
+        int[] before = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : big;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max), to = Math.min(m, i + max);
+            Arrays.fill(current, big);
+            current[0] = i <= max ? i : big;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, before[j - 2] + 1);
+                }
+                current[j] = Math.min(value, big);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return big;
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], big);
+    }
+
+    // Trigrams of "$word$", each packed into a long (three 16-bit chars)
+    private static long[] trigrams(String word) {
+        String padded = "$" + word + "$";
+        long[] result = new long[padded.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        return result;
+    }
+
+    // Bigrams of "$word$", packed into the low 32 bits so they never equal a trigram
+    private static long[] bigrams(String word) {
+        String padded = "$" + word + "$";
+        long[] result = new long[padded.length() - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (long) padded.charAt(i) << 16 | padded.charAt(i + 1);
+        }
+        return result;
+    }
+
+    private static long[] grams(String word) {
+        long[] trigrams = trigrams(word);
+        long[] bigrams = bigrams(word);
+        long[] result = Arrays.copyOf(trigrams, trigrams.length + bigrams.length);
+        System.arraycopy(bigrams, 0, result, trigrams.length, bigrams.length);
+        return result;
+    }
+
+    // Words of at least two letters; pure numbers ("2", "350") are not worth correcting
+    private static void addWords(List<String> out, String text) {
+        if (text == null) return;
+        for (String token : RecipeSearchIndex.tokenize(text.toLowerCase())) {
+            if (token.length() < 2 || Character.isDigit(token.charAt(0))) continue;
+            out.add(token);
+        }
+    }
+
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) return id;
+        id = words.size();
+        wordIds.put(word, id);
+        words.add(word);
+        for (long gram : grams(word)) {
+            int size = gramSizes.getOrDefault(gram, 0);
+            int[] ids = grams.get(gram);
+            if (ids == null) {
+                ids = new int[4];
+            } else if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size > 0 && ids[size - 1] == id) continue; // repeated gram within the word
+            ids[size] = id;
+            grams.put(gram, ids);
+            gramSizes.put(gram, size + 1);
+        }
+        return id;
+    }
+
+    private void addPosting(int id, int ordinal) {
+        if (id >= postings.length) {
+            int grown = Math.max(id + 1, postings.length * 2);
+            postings = Arrays.copyOf(postings, grown);
+            postingSizes = Arrays.copyOf(postingSizes, grown);
+        }
+        int[] list = postings[id] == null ? EMPTY : postings[id];
+        int size = postingSizes[id];
+        // Ordinals are handed out in increasing order, so this is almost always an append
+        int at = size == 0 || list[size - 1] < ordinal ? size : -Arrays.binarySearch(list, 0, size, ordinal) - 1;
+        if (at < 0) return;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        System.arraycopy(list, at, list, at + 1, size - at);
+        list[at] = ordinal;
+        postings[id] = list;
+        postingSizes[id] = size + 1;
+    }
+
+    private void removePosting(int id, int ordinal) {
+        int[] list = postings[id];
+        int size = postingSizes[id];
+        int at = Arrays.binarySearch(list, 0, size, ordinal);
+        if (at < 0) return;
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        postingSizes[id] = size - 1;
+    }
+
+    private static int[] distinctSorted(int[] ids) {
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+}
@@ -0,0 +1,45 @@
+package com.recipemanager;
+
+/**
+ * One parsed line of a recipe's ingredient list, e.g. {@code "1 1/2 cups flour"} becomes
+ * quantity 1.5, unit {@code "cup"} and name {@code "flour"}. Names are lowercase, singular
+ * and shared between all recipes that use the same ingredient.
+ */
+public final class Ingredient {
+
+    private final double quantity;
+    private final String unit;
+    private final String name;
+    // IngredientDictionary id of the name, for ingredient-keyed indexes
+    final int nameId;
+
+    Ingredient(double quantity, String unit, String name, int nameId) {
+        this.quantity = quantity;
+        this.unit = unit;
+        this.name = name;
+        this.nameId = nameId;
+    }
+
+    public boolean hasQuantity() { return !Double.isNaN(quantity); }
+
+    // NaN when the line has no amount ("Salt and pepper to taste")
+    public double getQuantity() { return quantity; }
+
+    // Canonical unit such as "cup", "tbsp" or "g"; null for counted items ("2 eggs")
+    public String getUnit() { return unit; }
+
+    public String getName() { return name; }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        if (hasQuantity()) {
+            text.append(quantity == Math.rint(quantity) ? String.valueOf((long) quantity) : String.valueOf(quantity));
+            text.append(' ');
+        }
+        if (unit != null) {
+            text.append(unit).append(' ');
+        }
+        return text.append(name).toString();
+    }
+}
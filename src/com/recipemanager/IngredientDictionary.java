@@ -0,0 +1,32 @@
+package com.recipemanager;
+
+/**
+ * Process-wide pool of normalized ingredient names. Each distinct name is kept as one
+ * String instance with a dense int id, so 10k recipes using "flour" share a single string
+ * and ingredient indexes can work on ids instead of text.
+ */
+final class IngredientDictionary {
+
+    private static final StringDictionary names = new StringDictionary("ingredients", 256, Integer.MAX_VALUE);
+
+    private IngredientDictionary() {
+    }
+
+    // Id of an already normalized name, adding it on first use
+    static int intern(String name) {
+        return names.intern(name);
+    }
+
+    // Id of a normalized name, or -1 when no recipe uses it
+    static int lookup(String name) {
+        return names.lookup(name);
+    }
+
+    static String name(int id) {
+        return names.get(id);
+    }
+
+    static int size() {
+        return names.size();
+    }
+}
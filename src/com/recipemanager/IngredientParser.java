@@ -0,0 +1,269 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the newline-separated ingredient text of a recipe into {@link Ingredient}s.
+ *
+ * A line is read as an optional quantity ("2", "1/2", "1 1/2", "0.5", "½", "2-3"), an
+ * optional unit from a fixed alias table ("cups", "Tbsp", "200g") and the rest as the name.
+ * Names are normalized (lowercase, no parentheses, text after the first comma and "to taste"
+ * dropped, last word singular) and interned through {@link IngredientDictionary}.
+ */
+final class IngredientParser {
+
+    private static final Ingredient[] NONE = new Ingredient[0];
+
+    // Longer digit runs are not quantities (and would overflow an int denominator)
+    private static final int MAX_DIGITS = 9;
+
+    // Alias -> canonical unit
+    private static final Map<String, String> UNITS = new HashMap<>();
+
+    static {
+        unit("cup", "cup", "cups", "c");
+        unit("tbsp", "tbsp", "tbsps", "tbs", "tbl", "tablespoon", "tablespoons");
+        unit("tsp", "tsp", "tsps", "teaspoon", "teaspoons");
+        unit("g", "g", "gr", "gram", "grams");
+        unit("kg", "kg", "kilogram", "kilograms");
+        unit("ml", "ml", "milliliter", "milliliters", "millilitre", "millilitres");
+        unit("l", "l", "liter", "liters", "litre", "litres");
+        unit("oz", "oz", "ounce", "ounces");
+        unit("lb", "lb", "lbs", "pound", "pounds");
+        unit("pint", "pint", "pints", "pt");
+        unit("quart", "quart", "quarts", "qt");
+        unit("pinch", "pinch", "pinches");
+        unit("dash", "dash", "dashes");
+        unit("clove", "clove", "cloves");
+        unit("slice", "slice", "slices");
+        unit("can", "can", "cans");
+        unit("piece", "piece", "pieces");
+        unit("stick", "stick", "sticks");
+        unit("bunch", "bunch", "bunches");
+        unit("handful", "handful", "handfuls");
+        unit("package", "package", "packages", "pkg");
+    }
+
+    private static void unit(String canonical, String... aliases) {
+        for (String alias : aliases) {
+            UNITS.put(alias, canonical);
+        }
+    }
+
+    private IngredientParser() {
+    }
+
+    static Ingredient[] parse(String ingredients) {
+        if (ingredients == null || ingredients.isEmpty()) return NONE;
+        List<Ingredient> result = new ArrayList<>();
+        int start = 0;
+        while (start <= ingredients.length()) {
+            int end = ingredients.indexOf('\n', start);
+            if (end < 0) end = ingredients.length();
+            Ingredient ingredient = parseLine(ingredients.substring(start, end));
+            if (ingredient != null) {
+                result.add(ingredient);
+            }
+            start = end + 1;
+        }
+        return result.isEmpty() ? NONE : result.toArray(NONE);
+    }
+
+    // null for a blank line
+    static Ingredient parseLine(String line) {
+        String text = line.trim();
+        if (text.isEmpty()) return null;
+        int[] nameStart = {0};
+        double quantity = readQuantity(text, nameStart);
+        String unit = readUnit(text, nameStart, quantity);
+
+        String name = normalizeName(text.substring(nameStart[0]));
+        if (name.isEmpty()) {
+            name = normalizeName(text);
+            if (name.isEmpty()) return null;
+        }
+        int id = IngredientDictionary.intern(name);
+        return new Ingredient(quantity, unit, IngredientDictionary.name(id), id);
+    }
+
+    /**
+     * Normalized ingredient name of a free-text line such as a pantry entry ("3 Eggs" gives
+     * {@code "egg"}), without adding it to the dictionary; empty for a blank line.
+     */
+    static String nameOf(String line) {
+        String text = line.trim();
+        int[] nameStart = {0};
+        double quantity = readQuantity(text, nameStart);
+        readUnit(text, nameStart, quantity);
+        String name = normalizeName(text.substring(nameStart[0]));
+        return name.isEmpty() ? normalizeName(text) : name;
+    }
+
+    // Canonical unit starting at pos[0] (moving pos[0] past it and a following "of"), or null
+    private static String readUnit(String text, int[] pos, double quantity) {
+        int i = pos[0];
+        String unit = null;
+        int wordStart = skipSpaces(text, i);
+        int wordEnd = wordStart;
+        while (wordEnd < text.length() && Character.isLetter(text.charAt(wordEnd))) wordEnd++;
+        if (wordEnd > wordStart) {
+            String candidate = UNITS.get(text.substring(wordStart, wordEnd).toLowerCase());
+            // Single-letter aliases ("c", "g", "l") only count right after an amount
+            boolean boundary = wordEnd == text.length() || !Character.isLetterOrDigit(text.charAt(wordEnd));
+            if (candidate != null && boundary && (wordEnd - wordStart > 1 || !Double.isNaN(quantity))) {
+                unit = candidate;
+                i = wordEnd;
+                if (i < text.length() && text.charAt(i) == '.') i++;
+                i = skipSpaces(text, i);
+                if (text.regionMatches(true, i, "of ", 0, 3)) i += 3;
+            }
+        }
+        pos[0] = i;
+        return unit;
+    }
+
+    // Normalized form of an ingredient name without amount or unit, e.g. "Eggs" becomes "egg"
+    static String normalizeName(String raw) {
+        String text = raw.toLowerCase();
+        if (text.startsWith("optional:")) {
+            text = text.substring("optional:".length());
+        }
+        int comma = text.indexOf(',');
+        if (comma >= 0) {
+            text = text.substring(0, comma);
+        }
+
+        StringBuilder cleaned = new StringBuilder(text.length());
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth > 0) depth--;
+            } else if (depth == 0) {
+                boolean keep = Character.isLetterOrDigit(c) || c == '\'' || c == '-';
+                cleaned.append(keep ? c : ' ');
+            }
+        }
+
+        List<String> words = new ArrayList<>();
+        for (String word : cleaned.toString().split(" +")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        int n = words.size();
+        if (n >= 2 && words.get(n - 2).equals("to") && words.get(n - 1).equals("taste")) {
+            words.subList(n - 2, n).clear();
+        }
+        if (!words.isEmpty() && words.get(words.size() - 1).equals("optional")) {
+            words.remove(words.size() - 1);
+        }
+        if (words.isEmpty()) return "";
+        int last = words.size() - 1;
+        words.set(last, singular(words.get(last)));
+        return String.join(" ", words);
+    }
+
+    private static String singular(String word) {
+        int n = word.length();
+        if (n <= 3) return word;
+        if (word.endsWith("ies")) return word.substring(0, n - 3) + "y";
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")) {
+            return word.substring(0, n - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, n - 1);
+        }
+        return word;
+    }
+
+    // Reads "2", "1/2", "1 1/2", "1.5", "½", "1½" or a range "2-3" (lower bound); NaN if absent
+    private static double readQuantity(String text, int[] pos) {
+        int i = pos[0];
+        double value = Double.NaN;
+        int[] end = {i};
+        double whole = readNumber(text, end);
+        if (Double.isNaN(whole)) return value;
+        value = whole;
+        i = end[0];
+
+        // "1 1/2" or "1½"
+        int next = skipSpaces(text, i);
+        end[0] = next;
+        if (next < text.length() && (next == i || text.charAt(next) != '-')) {
+            double fraction = readNumber(text, end);
+            if (!Double.isNaN(fraction) && fraction < 1 && (next > i || isVulgar(text.charAt(next)))) {
+                value += fraction;
+                i = end[0];
+            }
+        }
+
+        // "2-3" or "2 to 3": keep the lower bound, skip the upper
+        next = skipSpaces(text, i);
+        if (next < text.length() && text.charAt(next) == '-') {
+            end[0] = skipSpaces(text, next + 1);
+            if (!Double.isNaN(readNumber(text, end))) i = end[0];
+        } else if (text.regionMatches(true, next, "to ", 0, 3)) {
+            end[0] = skipSpaces(text, next + 3);
+            if (!Double.isNaN(readNumber(text, end))) i = end[0];
+        }
+        pos[0] = i;
+        return value;
+    }
+
+    // One number at pos[0]: integer, decimal, a/b or a vulgar fraction character
+    private static double readNumber(String text, int[] pos) {
+        int i = pos[0];
+        if (i >= text.length()) return Double.NaN;
+        char first = text.charAt(i);
+        if (isVulgar(first)) {
+            pos[0] = i + 1;
+            return vulgar(first);
+        }
+        int start = i;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+        if (i - start > MAX_DIGITS) return Double.NaN;
+        while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) i++;
+        if (i == start) return Double.NaN;
+        double value;
+        try {
+            value = Double.parseDouble(text.substring(start, i));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+        if (i + 1 < text.length() && text.charAt(i) == '/' && Character.isDigit(text.charAt(i + 1))) {
+            int denominatorStart = ++i;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+            if (i - denominatorStart > MAX_DIGITS) return Double.NaN;
+            int denominator = Integer.parseInt(text.substring(denominatorStart, i));
+            if (denominator == 0) return Double.NaN;
+            value /= denominator;
+        }
+        pos[0] = i;
+        return value;
+    }
+
+    private static boolean isVulgar(char c) {
+        return !Double.isNaN(vulgar(c));
+    }
+
+    private static double vulgar(char c) {
+        switch (c) {
+            case '½': return 0.5;
+            case '⅓': return 1.0 / 3;
+            case '⅔': return 2.0 / 3;
+            case '¼': return 0.25;
+            case '¾': return 0.75;
+            case '⅛': return 0.125;
+            default: return Double.NaN;
+        }
+    }
+
+    private static int skipSpaces(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+}
@@ -0,0 +1,27 @@
+package com.recipemanager;
+
+/**
+ * Process-wide pool of a low-cardinality recipe column, such as categories or serving units.
+ * Each distinct label is stored once and recipes keep its 16-bit code instead of a String read
+ * per row; code 0 stands for null, so a label's code is its {@link StringDictionary} id plus one.
+ */
+final class LabelDictionary {
+
+    static final LabelDictionary CATEGORIES = new LabelDictionary("categories");
+    static final LabelDictionary SERVING_UNITS = new LabelDictionary("serving units");
+
+    private final StringDictionary labels;
+
+    private LabelDictionary(String kind) {
+        this.labels = new StringDictionary(kind, 64, Character.MAX_VALUE);
+    }
+
+    // Code of the label, adding it on first use
+    char encode(String label) {
+        return label == null ? 0 : (char) (labels.intern(label) + 1);
+    }
+
+    String decode(char code) {
+        return code == 0 ? null : labels.get(code - 1);
+    }
+}
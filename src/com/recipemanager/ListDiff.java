@@ -0,0 +1,98 @@
+package com.recipemanager;
+
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a list model into a new list of unique items with as few change events as possible,
+ * so a ListView keeps its selection, scroll position and cells instead of rebuilding.
+ *
+ * The common prefix and suffix are left alone. In the middle, runs of items that disappeared
+ * are removed and runs of new items inserted, which covers narrowing and widening a filter
+ * over lists kept in the same order. Reordered lists, or changes scattered over more than
+ * {@link #MAX_RUNS} runs, are applied as one {@code setAll} instead.
+ */
+final class ListDiff {
+
+    static final int MAX_RUNS = 64;
+
+    private ListDiff() {
+    }
+
+    static <T> void apply(ObservableList<T> items, List<T> next) {
+        int oldSize = items.size();
+        int newSize = next.size();
+        int limit = Math.min(oldSize, newSize);
+
+        int prefix = 0;
+        while (prefix < limit && items.get(prefix).equals(next.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < limit - prefix && items.get(oldSize - 1 - suffix).equals(next.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+        if (prefix == oldSize && prefix == newSize) return;
+        if (oldSize == prefix + suffix || newSize == prefix + suffix) {
+            // Pure insertion or pure removal of one block
+            if (newSize > oldSize) {
+                items.addAll(prefix, next.subList(prefix, newSize - suffix));
+            } else {
+                items.subList(prefix, oldSize - suffix).clear();
+            }
+            return;
+        }
+
+        List<T> oldMiddle = items.subList(prefix, oldSize - suffix);
+        List<T> newMiddle = next.subList(prefix, newSize - suffix);
+        Set<T> kept = new HashSet<>(newMiddle);
+
+        // [from, to) ranges of the old middle to remove, and the survivors in order
+        List<int[]> removals = new ArrayList<>();
+        List<T> survivors = new ArrayList<>();
+        for (int i = 0; i < oldMiddle.size(); i++) {
+            T item = oldMiddle.get(i);
+            if (kept.contains(item)) {
+                survivors.add(item);
+            } else if (!removals.isEmpty() && removals.get(removals.size() - 1)[1] == i) {
+                removals.get(removals.size() - 1)[1] = i + 1;
+            } else {
+                removals.add(new int[]{i, i + 1});
+            }
+            if (removals.size() > MAX_RUNS) {
+                items.setAll(next);
+                return;
+            }
+        }
+
+        // [from, to) ranges of the new middle to insert; survivors must appear in the same order
+        List<int[]> insertions = new ArrayList<>();
+        int matched = 0;
+        for (int i = 0; i < newMiddle.size(); i++) {
+            if (matched < survivors.size() && newMiddle.get(i).equals(survivors.get(matched))) {
+                matched++;
+            } else if (!insertions.isEmpty() && insertions.get(insertions.size() - 1)[1] == i) {
+                insertions.get(insertions.size() - 1)[1] = i + 1;
+            } else {
+                insertions.add(new int[]{i, i + 1});
+            }
+        }
+        // An unmatched survivor means the order changed (items are unique, so it was taken as an insertion)
+        if (matched != survivors.size() || removals.size() + insertions.size() > MAX_RUNS) {
+            items.setAll(next);
+            return;
+        }
+
+        for (int r = removals.size() - 1; r >= 0; r--) {
+            int[] run = removals.get(r);
+            items.subList(prefix + run[0], prefix + run[1]).clear();
+        }
+        for (int[] run : insertions) {
+            items.addAll(prefix + run[0], next.subList(prefix + run[0], prefix + run[1]));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.recipemanager;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide operation metrics for the repository and its JDBC calls. Hot paths record
+ * into the constants below; {@link #install()} publishes them as JMX MBeans and starts the
+ * periodic log, every {@code -Drecipemanager.metrics.logIntervalMs} (default one minute,
+ * 0 turns it off).
+ */
+public final class Metrics {
+
+    private static final List<OperationMetrics> all = new ArrayList<>();
+    // Extra lines for the log, e.g. a repository's query cache counters
+    private static final Map<String, Supplier<?>> sources = new ConcurrentHashMap<>();
+
+    public static final OperationMetrics LOAD = register("loadFromDatabase");
+    public static final OperationMetrics REFRESH = register("refresh");
+    public static final OperationMetrics SAVE = register("saveRecipe");
+    public static final OperationMetrics UPDATE = register("updateRecipe");
+    public static final OperationMetrics DELETE = register("deleteRecipe");
+    public static final OperationMetrics WRITE_BEHIND = register("writeBehindBatch");
+    public static final OperationMetrics SEARCH = register("searchRecipes");
+    public static final OperationMetrics RANKED_SEARCH = register("searchRanked");
+    public static final OperationMetrics FUZZY_SEARCH = register("searchFuzzy");
+    public static final OperationMetrics SUGGEST = register("suggest");
+    public static final OperationMetrics CATEGORY = register("getRecipesByCategory");
+    public static final OperationMetrics FILTER = register("filterRecipes");
+    public static final OperationMetrics PANTRY = register("matchPantry");
+    public static final OperationMetrics QUERY_DATABASE = register("queryDatabase");
+    public static final OperationMetrics FIND_IN_DATABASE = register("findInDatabase");
+    public static final OperationMetrics SUGGEST_FROM_DATABASE = register("suggestFromDatabase");
+    public static final OperationMetrics CONNECTION = register("getConnection");
+
+    private static final long LOG_INTERVAL_MS = Long.getLong("recipemanager.metrics.logIntervalMs", 60_000);
+
+    private static boolean installed;
+    private static ScheduledExecutorService logger;
+
+    private Metrics() {
+    }
+
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        all.add(metrics);
+        return metrics;
+    }
+
+    public static List<OperationMetrics> all() {
+        return Collections.unmodifiableList(all);
+    }
+
+    // Adds "label: stats" to every log line block; the same label replaces the previous source
+    public static void addSource(String label, Supplier<?> stats) {
+        sources.put(label, stats);
+    }
+
+    // Registers the MBeans and starts the periodic log; safe to call more than once
+    public static synchronized void install() {
+        if (installed) return;
+        installed = true;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationMetrics metrics : all) {
+            try {
+                ObjectName name = new ObjectName("com.recipemanager:type=Operation,name=" + metrics.getName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(metrics, name);
+                }
+            } catch (JMException e) {
+                System.err.println("❌ Error registering metrics MBean " + metrics.getName() + ": " + e.getMessage());
+            }
+        }
+
+        if (LOG_INTERVAL_MS > 0) {
+            logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(Metrics::log, LOG_INTERVAL_MS, LOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+    }
+
+    // One line per operation that has been called at least once, plus the connection pool and sources
+    public static void log() {
+        StringBuilder out = new StringBuilder("📊 Metrics");
+        for (OperationMetrics metrics : all) {
+            if (metrics.getCount() > 0) {
+                out.append("\n   ").append(metrics);
+            }
+        }
+        out.append("\n   pool: ").append(DatabaseManager.getPoolStats());
+        for (Map.Entry<String, Supplier<?>> source : sources.entrySet()) {
+            out.append("\n   ").append(source.getKey()).append(": ").append(source.getValue().get());
+        }
+        System.out.println(out);
+    }
+}
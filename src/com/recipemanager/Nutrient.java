@@ -0,0 +1,16 @@
+package com.recipemanager;
+
+/**
+ * Numeric recipe attributes that can be range-filtered and aggregated through
+ * {@link RecipeRepository#filterByNutrition(NutritionFilter)}.
+ */
+public enum Nutrient {
+    CALORIES,
+    PROTEIN,
+    CARBS,
+    FAT,
+    PREP_TIME,
+    COOK_TIME,
+    TOTAL_TIME,
+    RATING
+}
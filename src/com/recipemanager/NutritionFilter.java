@@ -0,0 +1,42 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+
+/**
+ * Inclusive range constraints over {@link Nutrient} values, e.g.
+ * {@code new NutritionFilter().atMost(Nutrient.CALORIES, 500).atLeast(Nutrient.PROTEIN, 25)
+ * .atMost(Nutrient.TOTAL_TIME, 30)}. Unconstrained nutrients match everything.
+ */
+public class NutritionFilter {
+
+    private static final int COUNT = Nutrient.values().length;
+
+    final double[] min = new double[COUNT];
+    final double[] max = new double[COUNT];
+
+    public NutritionFilter() {
+        Arrays.fill(min, Double.NEGATIVE_INFINITY);
+        Arrays.fill(max, Double.POSITIVE_INFINITY);
+    }
+
+    public NutritionFilter between(Nutrient nutrient, double low, double high) {
+        min[nutrient.ordinal()] = low;
+        max[nutrient.ordinal()] = high;
+        return this;
+    }
+
+    public NutritionFilter atLeast(Nutrient nutrient, double low) {
+        min[nutrient.ordinal()] = low;
+        return this;
+    }
+
+    public NutritionFilter atMost(Nutrient nutrient, double high) {
+        max[nutrient.ordinal()] = high;
+        return this;
+    }
+
+    boolean constrains(Nutrient nutrient) {
+        int i = nutrient.ordinal();
+        return min[i] != Double.NEGATIVE_INFINITY || max[i] != Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,44 @@
+package com.recipemanager;
+
+/**
+ * Aggregate of one {@link Nutrient} over the recipes matching a {@link NutritionFilter}.
+ * The histogram splits [min, max] into equally wide buckets; the last bucket includes max.
+ */
+public class NutritionStats {
+
+    private final Nutrient nutrient;
+    private final int count;
+    private final double min;
+    private final double max;
+    private final double sum;
+    private final long[] histogram;
+
+    NutritionStats(Nutrient nutrient, int count, double min, double max, double sum, long[] histogram) {
+        this.nutrient = nutrient;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.histogram = histogram;
+    }
+
+    public Nutrient getNutrient() { return nutrient; }
+    public int getCount() { return count; }
+    public double getMin() { return count == 0 ? Double.NaN : min; }
+    public double getMax() { return count == 0 ? Double.NaN : max; }
+    public double getAverage() { return count == 0 ? Double.NaN : sum / count; }
+    public long[] getHistogram() { return histogram.clone(); }
+
+    // Lower bound of a histogram bucket
+    public double getBucketStart(int bucket) {
+        return min + (max - min) * bucket / histogram.length;
+    }
+
+    @Override
+    public String toString() {
+        return nutrient + ": count=" + count +
+               ", min=" + String.format("%.1f", getMin()) +
+               ", max=" + String.format("%.1f", getMax()) +
+               ", avg=" + String.format("%.1f", getAverage());
+    }
+}
@@ -0,0 +1,190 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar copy of the numeric recipe attributes, keyed by recipe ordinal.
+ *
+ * Each {@link Nutrient} lives in its own primitive array and a bitmap marks the live
+ * ordinals, so range filters and aggregates are tight loops over ints and doubles with no
+ * boxing and no pointer chasing through {@link Recipe} objects. Scans over large stores are
+ * split into word-aligned chunks and run on the common fork/join pool; every chunk writes
+ * only its own bitmap words or partial results, so the workers never contend.
+ */
+class NutritionStore {
+
+    // Below this many ordinals a sequential scan beats forking
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHUNK_WORDS = 256;
+
+    private long[] live = new long[16];
+    private int[] calories = new int[1024];
+    private int[] prepTime = new int[1024];
+    private int[] cookTime = new int[1024];
+    private double[] protein = new double[1024];
+    private double[] carbs = new double[1024];
+    private double[] fat = new double[1024];
+    private double[] rating = new double[1024];
+    private int limit;
+
+    void put(int ordinal, Recipe recipe) {
+        ensureCapacity(ordinal + 1);
+        calories[ordinal] = recipe.getCalories();
+        prepTime[ordinal] = recipe.getPrepTime();
+        cookTime[ordinal] = recipe.getCookTime();
+        protein[ordinal] = recipe.getProtein();
+        carbs[ordinal] = recipe.getCarbs();
+        fat[ordinal] = recipe.getFat();
+        rating[ordinal] = recipe.getRating();
+        live[ordinal >>> 6] |= 1L << ordinal;
+        limit = Math.max(limit, ordinal + 1);
+    }
+
+    void remove(int ordinal) {
+        if (ordinal < limit) {
+            live[ordinal >>> 6] &= ~(1L << ordinal);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(live, 0L);
+        limit = 0;
+    }
+
+    /** Bitmap (64 ordinals per word) of the live ordinals whose values satisfy the filter. */
+    long[] filter(NutritionFilter filter) {
+        int words = wordCount();
+        long[] matches = new long[words];
+        forEachChunk(words, (from, to) -> filterWords(filter, matches, from, to));
+        return matches;
+    }
+
+    NutritionStats aggregate(Nutrient nutrient, long[] matches, int buckets) {
+        int words = matches.length;
+        int chunks = Math.max(1, (words + CHUNK_WORDS - 1) / CHUNK_WORDS);
+        int[] counts = new int[chunks];
+        double[] mins = new double[chunks];
+        double[] maxs = new double[chunks];
+        double[] sums = new double[chunks];
+
+        forEachChunk(words, (from, to) -> {
+            int chunk = from / CHUNK_WORDS;
+            int count = 0;
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+            for (int w = from; w < to; w++) {
+                for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                    double v = value(nutrient, (w << 6) + Long.numberOfTrailingZeros(bits));
+                    count++;
+                    sum += v;
+                    if (v < min) min = v;
+                    if (v > max) max = v;
+                }
+            }
+            counts[chunk] = count;
+            mins[chunk] = min;
+            maxs[chunk] = max;
+            sums[chunk] = sum;
+        });
+
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+        for (int c = 0; c < chunks; c++) {
+            count += counts[c];
+            sum += sums[c];
+            min = Math.min(min, mins[c]);
+            max = Math.max(max, maxs[c]);
+        }
+
+        int bucketCount = Math.max(1, buckets);
+        long[][] partial = new long[chunks][bucketCount];
+        if (count > 0) {
+            double low = min;
+            double width = (max - min) / bucketCount;
+            forEachChunk(words, (from, to) -> {
+                long[] histogram = partial[from / CHUNK_WORDS];
+                for (int w = from; w < to; w++) {
+                    for (long bits = matches[w]; bits != 0; bits &= bits - 1) {
+                        double v = value(nutrient, (w << 6) + Long.numberOfTrailingZeros(bits));
+                        int bucket = width == 0 ? 0 : (int) ((v - low) / width);
+                        histogram[Math.min(bucket, bucketCount - 1)]++;
+                    }
+                }
+            });
+        }
+        long[] histogram = new long[bucketCount];
+        for (long[] part : partial) {
+            for (int b = 0; b < bucketCount; b++) histogram[b] += part[b];
+        }
+        return new NutritionStats(nutrient, count, min, max, sum, histogram);
+    }
+
+    private void filterWords(NutritionFilter filter, long[] matches, int from, int to) {
+        System.arraycopy(live, from, matches, from, to - from);
+        for (Nutrient nutrient : Nutrient.values()) {
+            if (!filter.constrains(nutrient)) continue;
+            double low = filter.min[nutrient.ordinal()];
+            double high = filter.max[nutrient.ordinal()];
+            for (int w = from; w < to; w++) {
+                long kept = matches[w];
+                for (long bits = kept; bits != 0; bits &= bits - 1) {
+                    int ordinal = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    double v = value(nutrient, ordinal);
+                    if (v < low || v > high) {
+                        kept &= ~Long.lowestOneBit(bits);
+                    }
+                }
+                matches[w] = kept;
+            }
+        }
+    }
+
+    private double value(Nutrient nutrient, int ordinal) {
+        switch (nutrient) {
+            case CALORIES: return calories[ordinal];
+            case PROTEIN: return protein[ordinal];
+            case CARBS: return carbs[ordinal];
+            case FAT: return fat[ordinal];
+            case PREP_TIME: return prepTime[ordinal];
+            case COOK_TIME: return cookTime[ordinal];
+            case TOTAL_TIME: return prepTime[ordinal] + cookTime[ordinal];
+            default: return rating[ordinal];
+        }
+    }
+
+    private interface WordRange {
+        void scan(int fromWord, int toWord);
+    }
+
+    private void forEachChunk(int words, WordRange range) {
+        int chunks = (words + CHUNK_WORDS - 1) / CHUNK_WORDS;
+        if ((long) words * 64 < PARALLEL_THRESHOLD || chunks < 2) {
+            for (int c = 0; c < chunks; c++) {
+                range.scan(c * CHUNK_WORDS, Math.min(words, (c + 1) * CHUNK_WORDS));
+            }
+            return;
+        }
+        IntStream.range(0, chunks).parallel()
+                .forEach(c -> range.scan(c * CHUNK_WORDS, Math.min(words, (c + 1) * CHUNK_WORDS)));
+    }
+
+    private int wordCount() {
+        return (limit + 63) >>> 6;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= calories.length) {
+            if ((size + 63) >>> 6 > live.length) live = Arrays.copyOf(live, live.length * 2);
+            return;
+        }
+        int grown = Math.max(size, calories.length * 2);
+        calories = Arrays.copyOf(calories, grown);
+        prepTime = Arrays.copyOf(prepTime, grown);
+        cookTime = Arrays.copyOf(cookTime, grown);
+        protein = Arrays.copyOf(protein, grown);
+        carbs = Arrays.copyOf(carbs, grown);
+        fat = Arrays.copyOf(fat, grown);
+        rating = Arrays.copyOf(rating, grown);
+        live = Arrays.copyOf(live, Math.max(live.length, (grown + 63) >>> 6));
+    }
+}
@@ -0,0 +1,128 @@
+package com.recipemanager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters for one operation. Recording is allocation-free and
+ * lock-free: striped {@link LongAdder}s for the counters and a fixed array of power-of-two
+ * nanosecond buckets for the latencies, so it can stay on in production.
+ */
+public final class OperationMetrics implements OperationMetricsMBean {
+
+    // Bucket i holds durations in [2^i, 2^(i+1)) ns, which covers everything a long can hold
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /** Records a successful call that started at {@code startNanos} ({@link System#nanoTime()}). */
+    public void record(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    // A failed call counts towards the latencies too: slow failures (timeouts) are what matter
+    public void recordFailure(long startNanos) {
+        errors.increment();
+        record(startNanos);
+    }
+
+    public void addRows(long loaded) {
+        rows.add(loaded);
+    }
+
+    void recordNanos(long nanos) {
+        long duration = Math.max(nanos, 0);
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+        histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(duration | 1));
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public long getCount() { return count.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public double getErrorRate() {
+        long calls = count.sum();
+        return calls == 0 ? 0 : (double) errors.sum() / calls;
+    }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public double getMeanMicros() {
+        long calls = count.sum();
+        return calls == 0 ? 0 : totalNanos.sum() / 1_000.0 / calls;
+    }
+
+    @Override
+    public double getMaxMicros() { return maxNanos.get() / 1_000.0; }
+
+    @Override
+    public double getP50Micros() { return percentileMicros(0.50); }
+
+    @Override
+    public double getP95Micros() { return percentileMicros(0.95); }
+
+    @Override
+    public double getP99Micros() { return percentileMicros(0.99); }
+
+    // Upper bound of the bucket holding the percentile, capped at the observed maximum
+    double percentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                double upper = i >= 62 ? Long.MAX_VALUE : (double) (1L << (i + 1));
+                return Math.min(upper, maxNanos.get()) / 1_000.0;
+            }
+        }
+        return getMaxMicros();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, errors=%d, rows=%d, mean=%.1fus, p50=%.1fus, p95=%.1fus, p99=%.1fus, max=%.1fus",
+                name, getCount(), getErrors(), getRows(), getMeanMicros(),
+                getP50Micros(), getP95Micros(), getP99Micros(), getMaxMicros());
+    }
+}
@@ -0,0 +1,20 @@
+package com.recipemanager;
+
+/**
+ * JMX view of one {@link OperationMetrics}, registered as
+ * {@code com.recipemanager:type=Operation,name=<operation>}. Times are in microseconds;
+ * percentiles are the upper bound of the power-of-two bucket they fall in.
+ */
+public interface OperationMetricsMBean {
+    String getName();
+    long getCount();
+    long getErrors();
+    double getErrorRate();
+    long getRows();
+    double getMeanMicros();
+    double getMaxMicros();
+    double getP50Micros();
+    double getP95Micros();
+    double getP99Micros();
+    void reset();
+}
@@ -0,0 +1,90 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+
+/**
+ * Candidate set of one query: maps recipe ordinals to dense slots 0, 1, 2, ... in the order
+ * they are added, through an open-addressing int table sized by the candidates rather than
+ * by the collection. Scoring state lives in arrays indexed by slot, so a query that touches
+ * a handful of recipes allocates a handful of entries whatever the number of recipes.
+ */
+final class OrdinalSlots {
+
+    // By bucket: ordinal + 1, 0 when empty, and the slot it maps to
+    private int[] keys;
+    private int[] slots;
+    // By slot: the ordinal
+    private int[] ordinals;
+    private int size;
+
+    OrdinalSlots(int expected) {
+        int buckets = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1;
+        keys = new int[buckets];
+        slots = new int[buckets];
+        ordinals = new int[buckets / 2];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int slot) {
+        return ordinals[slot];
+    }
+
+    // Length to grow per-slot arrays to once a slot reaches their end
+    int capacity() {
+        return ordinals.length;
+    }
+
+    // Slot of the ordinal, or -1 when it was not added
+    int find(int ordinal) {
+        int mask = keys.length - 1;
+        for (int i = bucket(ordinal, mask); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == 0) return -1;
+            if (key == ordinal + 1) return slots[i];
+        }
+    }
+
+    // Slot of the ordinal, taking the next free slot when it is new
+    int add(int ordinal) {
+        int mask = keys.length - 1;
+        int i = bucket(ordinal, mask);
+        for (int key = keys[i]; key != 0; key = keys[i]) {
+            if (key == ordinal + 1) return slots[i];
+            i = (i + 1) & mask;
+        }
+        int slot = size++;
+        keys[i] = ordinal + 1;
+        slots[i] = slot;
+        if (slot == ordinals.length) {
+            grow();
+        }
+        ordinals[slot] = ordinal;
+        return slot;
+    }
+
+    // Doubles the table at half load; slots keep their numbers
+    private void grow() {
+        int buckets = keys.length * 2;
+        int mask = buckets - 1;
+        int[] grownKeys = new int[buckets];
+        int[] grownSlots = new int[buckets];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == 0) continue;
+            int at = bucket(keys[i] - 1, mask);
+            while (grownKeys[at] != 0) at = (at + 1) & mask;
+            grownKeys[at] = keys[i];
+            grownSlots[at] = slots[i];
+        }
+        keys = grownKeys;
+        slots = grownSlots;
+        ordinals = Arrays.copyOf(ordinals, buckets / 2);
+    }
+
+    private static int bucket(int ordinal, int mask) {
+        int h = ordinal * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
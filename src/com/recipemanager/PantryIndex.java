@@ -0,0 +1,264 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingredient-to-recipe inverted index behind {@link RecipeRepository#matchPantry}.
+ *
+ * Postings are sorted int arrays of recipe ordinals per {@link IngredientDictionary} id. A
+ * pantry query resolves each pantry entry to the ingredient ids it covers through a
+ * word-to-ingredient index, walks their postings once while counting covered ingredients per
+ * candidate in {@link OrdinalSlots} order, and keeps the best {@code limit} candidates in a
+ * bounded binary heap. Nothing is boxed, and only ingredients sharing a word with a pantry
+ * entry and recipes sharing at least one ingredient with the pantry are looked at.
+ */
+class PantryIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    // By ingredient id: sorted ordinals, valid up to postingSizes[id]
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+    // By ordinal: distinct sorted ingredient ids, null when the ordinal is not indexed
+    private int[][] ingredientsOf = new int[1024][];
+    // By word of an indexed ingredient name: those ingredient ids, valid up to the stored size.
+    // Ids stay listed once their postings empty; lookups skip them
+    private final Map<String, int[]> wordIngredients = new HashMap<>();
+    private final Map<String, Integer> wordSizes = new HashMap<>();
+    private boolean[] wordsIndexed = new boolean[256];
+
+    void put(int ordinal, Recipe recipe) {
+        remove(ordinal);
+        Ingredient[] parsed = recipe.parsedIngredients();
+        int[] ids = new int[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            ids[i] = parsed[i].nameId;
+        }
+        ids = distinctSorted(ids);
+
+        if (ordinal >= ingredientsOf.length) {
+            ingredientsOf = Arrays.copyOf(ingredientsOf, Math.max(ordinal + 1, ingredientsOf.length * 2));
+        }
+        ingredientsOf[ordinal] = ids;
+        for (int id : ids) {
+            addPosting(id, ordinal);
+            indexWords(id);
+        }
+    }
+
+    void remove(int ordinal) {
+        if (ordinal >= ingredientsOf.length || ingredientsOf[ordinal] == null) return;
+        for (int id : ingredientsOf[ordinal]) {
+            removePosting(id, ordinal);
+        }
+        ingredientsOf[ordinal] = null;
+    }
+
+    void clear() {
+        Arrays.fill(postings, null);
+        Arrays.fill(postingSizes, 0);
+        Arrays.fill(ingredientsOf, null);
+        wordIngredients.clear();
+        wordSizes.clear();
+        Arrays.fill(wordsIndexed, false);
+    }
+
+    /**
+     * Best {@code max} recipes for the pantry, ranked by the share of their ingredients it
+     * covers, then fewer missing, then more matched, then insertion order. Recipes missing
+     * more than {@code maxMissing} ingredients are skipped; a negative value allows any.
+     */
+    List<PantryMatch> match(Collection<String> pantry, int maxMissing, int max, Recipe[] byOrdinal) {
+        int[] covered = coveredIngredients(pantry);
+        OrdinalSlots candidates = new OrdinalSlots(64);
+        int[] score = new int[candidates.capacity()];
+
+        for (int id : covered) {
+            int[] list = postings[id];
+            for (int j = 0, n = postingSizes[id]; j < n; j++) {
+                int slot = candidates.add(list[j]);
+                if (slot == score.length) score = Arrays.copyOf(score, candidates.capacity());
+                score[slot]++;
+            }
+        }
+
+        // Min-heap on rank: the worst kept candidate sits at the root
+        int[] heap = new int[Math.max(0, max)];
+        int size = 0;
+        for (int slot = 0; slot < candidates.size() && heap.length > 0; slot++) {
+            if (maxMissing >= 0 && ingredientsOf[candidates.ordinal(slot)].length - score[slot] > maxMissing) continue;
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++, score, candidates);
+            } else if (better(slot, heap[0], score, candidates)) {
+                heap[0] = slot;
+                siftDown(heap, size, score, candidates);
+            }
+        }
+
+        // Pop worst-first into the tail to get best-first order
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, score, candidates);
+        }
+
+        List<PantryMatch> result = new ArrayList<>(ranked.length);
+        for (int slot : ranked) {
+            int ordinal = candidates.ordinal(slot);
+            int[] ids = ingredientsOf[ordinal];
+            List<String> missing = new ArrayList<>(ids.length - score[slot]);
+            for (int id : ids) {
+                if (Arrays.binarySearch(covered, id) < 0) {
+                    missing.add(IngredientDictionary.name(id));
+                }
+            }
+            result.add(new PantryMatch(byOrdinal[ordinal], score[slot], ids.length, missing));
+        }
+        return result;
+    }
+
+    // Sorted ingredient ids whose name equals or contains a pantry entry as whole words ("oil"
+    // covers "olive oil"); only the ingredients listed under the entry's first word are checked
+    private int[] coveredIngredients(Collection<String> pantry) {
+        int[] covered = new int[16];
+        int count = 0;
+        for (String entry : pantry) {
+            String item = entry == null ? "" : IngredientParser.nameOf(entry);
+            if (item.isEmpty()) continue;
+            int space = item.indexOf(' ');
+            String word = space < 0 ? item : item.substring(0, space);
+            int[] ids = wordIngredients.get(word);
+            if (ids == null) continue;
+            for (int i = 0, n = wordSizes.get(word); i < n; i++) {
+                int id = ids[i];
+                if (postingSizes[id] == 0 || !containsWords(IngredientDictionary.name(id), item)) continue;
+                if (count == covered.length) covered = Arrays.copyOf(covered, count * 2);
+                covered[count++] = id;
+            }
+        }
+        return distinctSorted(Arrays.copyOf(covered, count));
+    }
+
+    // Lists the ingredient under each word of its name, the first time a recipe uses it
+    private void indexWords(int id) {
+        if (id >= wordsIndexed.length) {
+            wordsIndexed = Arrays.copyOf(wordsIndexed, Math.max(id + 1, wordsIndexed.length * 2));
+        }
+        if (wordsIndexed[id]) return;
+        wordsIndexed[id] = true;
+        String name = IngredientDictionary.name(id);
+        int start = 0;
+        while (start < name.length()) {
+            int end = name.indexOf(' ', start);
+            if (end < 0) end = name.length();
+            if (end > start) {
+                String word = name.substring(start, end);
+                int[] ids = wordIngredients.getOrDefault(word, EMPTY);
+                int size = wordSizes.getOrDefault(word, 0);
+                // A word repeated in one name ("salt and salt") is listed once
+                if (size == 0 || ids[size - 1] != id) {
+                    if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+                    ids[size] = id;
+                    wordIngredients.put(word, ids);
+                    wordSizes.put(word, size + 1);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    private static boolean containsWords(String name, String item) {
+        for (int at = name.indexOf(item); at >= 0; at = name.indexOf(item, at + 1)) {
+            int end = at + item.length();
+            if ((at == 0 || name.charAt(at - 1) == ' ') && (end == name.length() || name.charAt(end) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Compares candidate slots
+    private boolean better(int a, int b, int[] score, OrdinalSlots candidates) {
+        int ordinalA = candidates.ordinal(a), ordinalB = candidates.ordinal(b);
+        int totalA = ingredientsOf[ordinalA].length, totalB = ingredientsOf[ordinalB].length;
+        long coverage = (long) score[a] * totalB - (long) score[b] * totalA;
+        if (coverage != 0) return coverage > 0;
+        int missing = (totalA - score[a]) - (totalB - score[b]);
+        if (missing != 0) return missing < 0;
+        if (score[a] != score[b]) return score[a] > score[b];
+        return ordinalA < ordinalB;
+    }
+
+    private void siftUp(int[] heap, int i, int[] score, OrdinalSlots candidates) {
+        int item = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], item, score, candidates)) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = item;
+    }
+
+    private void siftDown(int[] heap, int size, int[] score, OrdinalSlots candidates) {
+        if (size == 0) return;
+        int item = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && better(heap[child], heap[child + 1], score, candidates)) child++;
+            if (!better(item, heap[child], score, candidates)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+
+    private void addPosting(int id, int ordinal) {
+        if (id >= postings.length) {
+            int grown = Math.max(id + 1, postings.length * 2);
+            postings = Arrays.copyOf(postings, grown);
+            postingSizes = Arrays.copyOf(postingSizes, grown);
+        }
+        int[] list = postings[id] == null ? EMPTY : postings[id];
+        int size = postingSizes[id];
+        // Ordinals are handed out in increasing order, so this is almost always an append
+        int at = size == 0 || list[size - 1] < ordinal ? size : -Arrays.binarySearch(list, 0, size, ordinal) - 1;
+        if (at < 0) return;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        System.arraycopy(list, at, list, at + 1, size - at);
+        list[at] = ordinal;
+        postings[id] = list;
+        postingSizes[id] = size + 1;
+    }
+
+    private void removePosting(int id, int ordinal) {
+        int[] list = postings[id];
+        int size = postingSizes[id];
+        int at = Arrays.binarySearch(list, 0, size, ordinal);
+        if (at < 0) return;
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        postingSizes[id] = size - 1;
+    }
+
+    private static int[] distinctSorted(int[] ids) {
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+}
@@ -0,0 +1,41 @@
+package com.recipemanager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One result of {@link RecipeRepository#matchPantry}: a recipe, how many of its distinct
+ * ingredients the pantry covers and which ones are still missing.
+ */
+public class PantryMatch {
+
+    private final Recipe recipe;
+    private final int matched;
+    private final int ingredientCount;
+    private final List<String> missing;
+
+    PantryMatch(Recipe recipe, int matched, int ingredientCount, List<String> missing) {
+        this.recipe = recipe;
+        this.matched = matched;
+        this.ingredientCount = ingredientCount;
+        this.missing = Collections.unmodifiableList(missing);
+    }
+
+    public Recipe getRecipe() { return recipe; }
+    public int getMatchedCount() { return matched; }
+    public int getIngredientCount() { return ingredientCount; }
+    public int getMissingCount() { return ingredientCount - matched; }
+
+    // Normalized names of the ingredients the pantry does not cover
+    public List<String> getMissing() { return missing; }
+
+    // Share of the recipe's ingredients in the pantry, 0..1
+    public double getCoverage() {
+        return ingredientCount == 0 ? 0 : (double) matched / ingredientCount;
+    }
+
+    @Override
+    public String toString() {
+        return recipe.getName() + " (" + matched + "/" + ingredientCount + ", missing " + missing + ")";
+    }
+}
@@ -0,0 +1,274 @@
+package com.recipemanager;
+
+/**
+ * Martin Porter's 1980 suffix-stripping stemmer for lowercase English words, so that
+ * "chopped", "chopping" and "chops" all index as "chop". Words with characters outside
+ * a-z (numbers, accented letters) and words of up to two letters are returned unchanged.
+ */
+final class PorterStemmer {
+
+    private char[] b;
+    private int k;  // end of the current word
+    private int j;  // end of the stem during suffix tests
+
+    private PorterStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 2) return word;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') return word;
+        }
+        PorterStemmer stemmer = new PorterStemmer();
+        stemmer.b = word.toCharArray();
+        stemmer.k = word.length() - 1;
+        stemmer.step1ab();
+        if (stemmer.k > 0) {
+            stemmer.step1c();
+            stemmer.step2();
+            stemmer.step3();
+            stemmer.step4();
+            stemmer.step5();
+        }
+        return stemmer.k == word.length() - 1 ? word : new String(stemmer.b, 0, stemmer.k + 1);
+    }
+
+    private boolean consonant(int i) {
+        switch (b[i]) {
+            case 'a': case 'e': case 'i': case 'o': case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !consonant(i - 1);
+            default:
+                return true;
+        }
+    }
+
+    // Number of vowel-consonant sequences in b[0..j]
+    private int measure() {
+        int n = 0;
+        int i = 0;
+        while (true) {
+            if (i > j) return n;
+            if (!consonant(i)) break;
+            i++;
+        }
+        i++;
+        while (true) {
+            while (true) {
+                if (i > j) return n;
+                if (consonant(i)) break;
+                i++;
+            }
+            i++;
+            n++;
+            while (true) {
+                if (i > j) return n;
+                if (!consonant(i)) break;
+                i++;
+            }
+            i++;
+        }
+    }
+
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!consonant(i)) return true;
+        }
+        return false;
+    }
+
+    private boolean doubleConsonant(int at) {
+        return at >= 1 && b[at] == b[at - 1] && consonant(at);
+    }
+
+    // consonant-vowel-consonant ending, where the last consonant is not w, x or y ("hop", not "snow")
+    private boolean cvc(int i) {
+        if (i < 2 || !consonant(i) || consonant(i - 1) || !consonant(i - 2)) return false;
+        char c = b[i];
+        return c != 'w' && c != 'x' && c != 'y';
+    }
+
+    private boolean ends(String suffix) {
+        int length = suffix.length();
+        int start = k - length + 1;
+        if (start < 0) return false;
+        for (int i = 0; i < length; i++) {
+            if (b[start + i] != suffix.charAt(i)) return false;
+        }
+        j = k - length;
+        return true;
+    }
+
+    // Replaces b[j+1..k] with the given ending
+    private void setTo(String ending) {
+        int length = ending.length();
+        if (j + 1 + length > b.length) {
+            b = java.util.Arrays.copyOf(b, j + 1 + length);
+        }
+        for (int i = 0; i < length; i++) {
+            b[j + 1 + i] = ending.charAt(i);
+        }
+        k = j + length;
+    }
+
+    private void replaceIfMeasured(String ending) {
+        if (measure() > 0) setTo(ending);
+    }
+
+    // Plurals and -ed / -ing
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (ends("sses")) k -= 2;
+            else if (ends("ies")) setTo("i");
+            else if (b[k - 1] != 's') k--;
+        }
+        if (ends("eed")) {
+            if (measure() > 0) k--;
+        } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+            k = j;
+            if (ends("at")) setTo("ate");
+            else if (ends("bl")) setTo("ble");
+            else if (ends("iz")) setTo("ize");
+            else if (doubleConsonant(k)) {
+                char c = b[k];
+                if (c != 'l' && c != 's' && c != 'z') k--;
+            } else {
+                j = k;
+                if (measure() == 1 && cvc(k)) setTo("e");
+            }
+        }
+    }
+
+    // Terminal y to i when there is another vowel in the stem
+    private void step1c() {
+        if (ends("y") && vowelInStem()) b[k] = 'i';
+    }
+
+    // Double suffixes to single ones: -ization to -ize, -fulness to -ful, ...
+    private void step2() {
+        if (k == 0) return;
+        switch (b[k - 1]) {
+            case 'a':
+                if (ends("ational")) replaceIfMeasured("ate");
+                else if (ends("tional")) replaceIfMeasured("tion");
+                break;
+            case 'c':
+                if (ends("enci")) replaceIfMeasured("ence");
+                else if (ends("anci")) replaceIfMeasured("ance");
+                break;
+            case 'e':
+                if (ends("izer")) replaceIfMeasured("ize");
+                break;
+            case 'l':
+                if (ends("bli")) replaceIfMeasured("ble");
+                else if (ends("alli")) replaceIfMeasured("al");
+                else if (ends("entli")) replaceIfMeasured("ent");
+                else if (ends("eli")) replaceIfMeasured("e");
+                else if (ends("ousli")) replaceIfMeasured("ous");
+                break;
+            case 'o':
+                if (ends("ization")) replaceIfMeasured("ize");
+                else if (ends("ation")) replaceIfMeasured("ate");
+                else if (ends("ator")) replaceIfMeasured("ate");
+                break;
+            case 's':
+                if (ends("alism")) replaceIfMeasured("al");
+                else if (ends("iveness")) replaceIfMeasured("ive");
+                else if (ends("fulness")) replaceIfMeasured("ful");
+                else if (ends("ousness")) replaceIfMeasured("ous");
+                break;
+            case 't':
+                if (ends("aliti")) replaceIfMeasured("al");
+                else if (ends("iviti")) replaceIfMeasured("ive");
+                else if (ends("biliti")) replaceIfMeasured("ble");
+                break;
+            case 'g':
+                if (ends("logi")) replaceIfMeasured("log");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // -ic-, -full, -ness and similar
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                if (ends("icate")) replaceIfMeasured("ic");
+                else if (ends("ative")) replaceIfMeasured("");
+                else if (ends("alize")) replaceIfMeasured("al");
+                break;
+            case 'i':
+                if (ends("iciti")) replaceIfMeasured("ic");
+                break;
+            case 'l':
+                if (ends("ical")) replaceIfMeasured("ic");
+                else if (ends("ful")) replaceIfMeasured("");
+                break;
+            case 's':
+                if (ends("ness")) replaceIfMeasured("");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // -ant, -ence and the like, when the stem is long enough
+    private void step4() {
+        if (k == 0) return;
+        switch (b[k - 1]) {
+            case 'a':
+                if (!ends("al")) return;
+                break;
+            case 'c':
+                if (!ends("ance") && !ends("ence")) return;
+                break;
+            case 'e':
+                if (!ends("er")) return;
+                break;
+            case 'i':
+                if (!ends("ic")) return;
+                break;
+            case 'l':
+                if (!ends("able") && !ends("ible")) return;
+                break;
+            case 'n':
+                if (!ends("ant") && !ends("ement") && !ends("ment") && !ends("ent")) return;
+                break;
+            case 'o':
+                if (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) break;
+                if (!ends("ou")) return;
+                break;
+            case 's':
+                if (!ends("ism")) return;
+                break;
+            case 't':
+                if (!ends("ate") && !ends("iti")) return;
+                break;
+            case 'u':
+                if (!ends("ous")) return;
+                break;
+            case 'v':
+                if (!ends("ive")) return;
+                break;
+            case 'z':
+                if (!ends("ize")) return;
+                break;
+            default:
+                return;
+        }
+        if (measure() > 1) k = j;
+    }
+
+    // Final -e and -ll
+    private void step5() {
+        j = k;
+        if (b[k] == 'e') {
+            int m = measure();
+            if (m > 1 || m == 1 && !cvc(k - 1)) k--;
+        }
+        if (b[k] == 'l' && doubleConsonant(k) && measure() > 1) k--;
+    }
+}
@@ -0,0 +1,159 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link FacetQuery} as SQL predicates for {@link RecipeRepository#queryDatabase}, paged by
+ * primary key: {@code WHERE r.id > ? AND ... ORDER BY r.id LIMIT ?}. Each page seeks straight
+ * to its first row instead of skipping {@code OFFSET} rows, so deep pages cost the same as
+ * the first one.
+ *
+ * Categories and difficulties are bound as ids, so MySQL can seek the (category_id,
+ * difficulty_id) index, or the difficulty_id foreign key index when only difficulties are
+ * selected; both are ordered by id within each value. IN lists are padded to
+ * a power of two so only a handful of distinct statements reach the server-side statement
+ * cache. Text words of three or more characters go through the FULLTEXT index on (name,
+ * ingredients) as required word prefixes ("chick" finds "chicken"); shorter words, which
+ * that index does not store, fall back to a substring match on the same two columns. Tags
+ * and nutrition ranges are checked on the rows the indexes select.
+ */
+final class PushdownQuery {
+
+    // innodb_ft_min_token_size: shorter words are not in the FULLTEXT index
+    private static final int MIN_FULLTEXT_WORD = 3;
+
+    private final StringBuilder where = new StringBuilder();
+    private final List<Object> params = new ArrayList<>();
+    // A category or difficulty the database does not know: nothing can match
+    private boolean unsatisfiable;
+
+    private PushdownQuery() {
+    }
+
+    static PushdownQuery of(Connection conn, ReferenceIdCache referenceIds, FacetQuery query) throws SQLException {
+        PushdownQuery result = new PushdownQuery();
+        if (!query.categories.isEmpty()) {
+            List<Integer> ids = new ArrayList<>();
+            for (String category : query.categories) {
+                Integer id = referenceIds.categoryId(conn, category);
+                if (id != null) ids.add(id);
+            }
+            result.in("r.category_id", ids);
+        }
+        if (!query.difficulties.isEmpty()) {
+            List<Integer> ids = new ArrayList<>();
+            for (String difficulty : query.difficulties) {
+                Integer id = referenceIds.difficultyId(conn, difficulty);
+                if (id != null) ids.add(id);
+            }
+            result.in("r.difficulty_id", ids);
+        }
+        if (query.favorite != null) {
+            result.where.append(" AND r.is_favorite = ?");
+            result.params.add(query.favorite);
+        }
+        if (query.text != null) {
+            result.text(query.text);
+        }
+        result.tags(query.tags);
+        if (query.nutrition != null) {
+            result.nutrition(query.nutrition);
+        }
+        return result;
+    }
+
+    boolean isUnsatisfiable() {
+        return unsatisfiable;
+    }
+
+    // Rows after afterId in id order; the caller reads one extra row to learn whether more follow
+    PreparedStatement page(Connection conn, String select, int afterId, int limit) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(select + " WHERE r.id > ?" + where + " ORDER BY r.id LIMIT ?");
+        int i = 1;
+        stmt.setInt(i++, afterId);
+        for (Object param : params) {
+            stmt.setObject(i++, param);
+        }
+        stmt.setInt(i, limit);
+        return stmt;
+    }
+
+    private void in(String column, List<Integer> ids) {
+        if (ids.isEmpty()) {
+            unsatisfiable = true;
+            return;
+        }
+        int size = Integer.highestOneBit(ids.size());
+        if (size < ids.size()) size <<= 1;
+        where.append(" AND ").append(column).append(size == 1 ? " = ?" : " IN (");
+        for (int i = 0; i < size; i++) {
+            if (size > 1) where.append(i == 0 ? "?" : ", ?");
+            params.add(ids.get(Math.min(i, ids.size() - 1)));
+        }
+        if (size > 1) where.append(')');
+    }
+
+    private void text(String text) {
+        StringBuilder against = new StringBuilder();
+        for (String word : RecipeSearchIndex.tokenize(text.toLowerCase())) {
+            if (word.length() >= MIN_FULLTEXT_WORD) {
+                if (against.length() > 0) against.append(' ');
+                against.append('+').append(word).append('*');
+            } else {
+                // Words are letters and digits only, so there is nothing to escape for LIKE
+                where.append(" AND (r.name LIKE ? OR r.ingredients LIKE ?)");
+                params.add("%" + word + "%");
+                params.add("%" + word + "%");
+            }
+        }
+        if (against.length() > 0) {
+            where.append(" AND MATCH (r.name, r.ingredients) AGAINST (? IN BOOLEAN MODE)");
+            params.add(against.toString());
+        }
+    }
+
+    // Every selected tag must be present
+    private void tags(Set<String> tags) {
+        for (String tag : tags) {
+            where.append(" AND EXISTS (SELECT 1 FROM recipe_tags rt JOIN tags t ON t.id = rt.tag_id")
+                    .append(" WHERE rt.recipe_id = r.id AND t.name = ?)");
+            params.add(tag);
+        }
+    }
+
+    private void nutrition(NutritionFilter filter) {
+        for (Nutrient nutrient : Nutrient.values()) {
+            if (!filter.constrains(nutrient)) continue;
+            String column = column(nutrient);
+            double min = filter.min[nutrient.ordinal()];
+            double max = filter.max[nutrient.ordinal()];
+            if (min != Double.NEGATIVE_INFINITY) {
+                where.append(" AND ").append(column).append(" >= ?");
+                params.add(min);
+            }
+            if (max != Double.POSITIVE_INFINITY) {
+                where.append(" AND ").append(column).append(" <= ?");
+                params.add(max);
+            }
+        }
+    }
+
+    private static String column(Nutrient nutrient) {
+        switch (nutrient) {
+            case CALORIES: return "r.calories";
+            case PROTEIN: return "r.protein";
+            case CARBS: return "r.carbs";
+            case FAT: return "r.fat";
+            case PREP_TIME: return "r.prep_time";
+            case COOK_TIME: return "r.cook_time";
+            case TOTAL_TIME: return "(r.prep_time + r.cook_time)";
+            case RATING: return "r.rating";
+            default: throw new IllegalArgumentException("Unknown nutrient " + nutrient);
+        }
+    }
+}
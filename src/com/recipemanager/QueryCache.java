@@ -0,0 +1,180 @@
+package com.recipemanager;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Approximate-LRU cache of {@link RecipeRepository#searchRecipes} and
+ * {@link RecipeRepository#getRecipesByCategory} results, bounded by entry count and by total
+ * weight (the number of recipes held across all results, plus one per entry).
+ *
+ * Each entry keeps the ordinals of its result. When a recipe is stored, discarded or
+ * reindexed, only the entries that contained it or that it matches now are dropped: a search
+ * entry when its query is a substring of the recipe's text, a category entry when the recipe
+ * is in that category. Everything else stays cached.
+ *
+ * Lookups take no lock: entries live in a concurrent map and a hit only stamps its entry
+ * with a logical clock that advances once per insertion, so a hot entry is written at most
+ * once between insertions rather than on every hit. Inserts, invalidation and eviction,
+ * which drops the entry with the oldest stamp, are serialized on the cache. The repository
+ * fills the cache under its read lock and invalidates under its write lock, so a result is
+ * never cached across a concurrent change, and looks entries up before taking its lock: an
+ * entry still present is the answer for the state before any write in progress.
+ */
+class QueryCache {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Guarded by this, like the counters below; clock is also read by lookups
+    private long weight;
+    private volatile long clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long evictions;
+    private long invalidations;
+
+    QueryCache(int maxEntries, long maxWeight) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxWeight = Math.max(0, maxWeight);
+    }
+
+    List<Recipe> search(String lowerQuery) {
+        return get(new Key(false, lowerQuery));
+    }
+
+    List<Recipe> category(String category) {
+        return get(new Key(true, category.toLowerCase(Locale.ROOT)));
+    }
+
+    // Caches a search result and returns it as the unmodifiable list callers get from now on
+    synchronized List<Recipe> putSearch(String lowerQuery, List<Recipe> result, BitSet ordinals) {
+        return put(new Key(false, lowerQuery), result, ordinals);
+    }
+
+    synchronized List<Recipe> putCategory(String category, List<Recipe> result, BitSet ordinals) {
+        return put(new Key(true, category.toLowerCase(Locale.ROOT)), result, ordinals);
+    }
+
+    // Drops the entries a change to this recipe can affect; call with its current fields
+    synchronized void invalidate(Recipe recipe, int ordinal) {
+        if (entries.isEmpty()) return;
+        // Lowercased on the first search entry that needs them, then shared by the rest
+        String[] lowerFields = null;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            Key key = e.getKey();
+            boolean affected = e.getValue().ordinals.get(ordinal);
+            if (!affected && key.category) {
+                affected = key.text.equalsIgnoreCase(recipe.getCategory());
+            } else if (!affected) {
+                if (lowerFields == null) lowerFields = RecipeSearchIndex.lowerFields(recipe);
+                affected = RecipeSearchIndex.matches(lowerFields, key.text);
+            }
+            if (affected) {
+                weight -= e.getValue().weight;
+                invalidations++;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    synchronized QueryCacheStats stats() {
+        return new QueryCacheStats(entries.size(), weight, hits.sum(), misses.sum(), evictions, invalidations);
+    }
+
+    private List<Recipe> get(Key key) {
+        if (maxEntries == 0) return null;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        long now = clock;
+        if (entry.lastUsed != now) entry.lastUsed = now;
+        return entry.result;
+    }
+
+    private List<Recipe> put(Key key, List<Recipe> result, BitSet ordinals) {
+        List<Recipe> shared = Collections.unmodifiableList(result);
+        long entryWeight = result.size() + 1L;
+        // A result heavier than the whole budget would only flush everything else
+        if (maxEntries == 0 || entryWeight > maxWeight) return shared;
+
+        Entry added = new Entry(shared, ordinals, entryWeight);
+        added.lastUsed = ++clock;
+        Entry previous = entries.put(key, added);
+        if (previous != null) weight -= previous.weight;
+        weight += entryWeight;
+
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            evictLeastRecentlyUsed(added);
+        }
+        return shared;
+    }
+
+    // A scan of at most maxEntries entries, paid by an insert, which follows a full query
+    private void evictLeastRecentlyUsed(Entry keep) {
+        Map.Entry<Key, Entry> eldest = null;
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry != keep && (eldest == null || entry.lastUsed < eldest.getValue().lastUsed)) {
+                eldest = e;
+            }
+        }
+        if (eldest == null) return;
+        entries.remove(eldest.getKey());
+        weight -= eldest.getValue().weight;
+        evictions++;
+    }
+
+    private static final class Key {
+        final boolean category;
+        final String text;
+
+        Key(boolean category, String text) {
+            this.category = category;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return category == other.category && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode() * 31 + (category ? 1 : 0);
+        }
+    }
+
+    private static final class Entry {
+        final List<Recipe> result;
+        final BitSet ordinals;
+        final long weight;
+        // Value of clock at the last hit or at insertion
+        volatile long lastUsed;
+
+        Entry(List<Recipe> result, BitSet ordinals, long weight) {
+            this.result = result;
+            this.ordinals = ordinals;
+            this.weight = weight;
+        }
+    }
+}
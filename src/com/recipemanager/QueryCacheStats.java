@@ -0,0 +1,43 @@
+package com.recipemanager;
+
+/**
+ * Counters of the repository's query result cache, from {@link RecipeRepository#getQueryCacheStats()}.
+ * Weight is the number of recipe references held across all cached results.
+ */
+public class QueryCacheStats {
+
+    private final int size;
+    private final long weight;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    QueryCacheStats(int size, long weight, long hits, long misses, long evictions, long invalidations) {
+        this.size = size;
+        this.weight = weight;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() { return size; }
+    public long getWeight() { return weight; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getInvalidations() { return invalidations; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size + ", weight=" + weight + ", hits=" + hits + ", misses=" + misses +
+               ", hitRate=" + String.format("%.1f%%", getHitRate() * 100) +
+               ", evictions=" + evictions + ", invalidations=" + invalidations;
+    }
+}
@@ -0,0 +1,311 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BM25F index behind {@link RecipeRepository#searchRanked} over every text field of a recipe.
+ *
+ * Fields are tokenized like {@link RecipeSearchIndex}, stop words dropped and the rest
+ * stemmed with {@link PorterStemmer}. Postings are sorted int arrays of recipe ordinals per
+ * term, each with the term's frequency in every field. At query time the field frequencies
+ * are length-normalized per field, weighted by the field boost and saturated once per term
+ * (BM25F), accumulated per candidate in {@link OrdinalSlots} order, and the best {@code limit}
+ * candidates kept in a bounded heap.
+ *
+ * Description, instructions and notes are lazy on summary-loaded recipes. Such recipes are
+ * indexed without them and marked pending until {@link #putText} supplies the text.
+ */
+class RankedSearchIndex {
+
+    static final int NAME = 0, INGREDIENTS = 1, CATEGORY = 2, TAGS = 3, DESCRIPTION = 4, INSTRUCTIONS = 5, NOTES = 6;
+    static final int FIELDS = 7;
+
+    private static final float[] BOOSTS = {3.0f, 1.5f, 1.0f, 2.0f, 1.0f, 0.6f, 0.4f};
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "then", "to", "until", "with");
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    // Raw token -> term id, so each distinct word is stemmed once
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    // By term id: sorted ordinals valid up to postingSizes[id], and FIELDS frequencies per posting
+    private int[][] postings = new int[1024][];
+    private char[][] frequencies = new char[1024][];
+    private int[] postingSizes = new int[1024];
+    // By ordinal: distinct term ids (null when not indexed) and FIELDS token counts
+    private int[][] termsOf = new int[1024][];
+    private int[] lengths = new int[1024 * FIELDS];
+    private final long[] totalLengths = new long[FIELDS];
+    // Recipes with a non-empty field; averages use these so a mostly empty field (notes) is not skewed
+    private final int[] fieldDocuments = new int[FIELDS];
+    private final BitSet textPending = new BitSet();
+    private int documents;
+
+    void put(int ordinal, Recipe recipe) {
+        String[] text = recipe.residentText();
+        index(ordinal, recipe, text);
+        textPending.set(ordinal, text == null);
+    }
+
+    // Completes a pending recipe with its long text (null if the database has none for it)
+    void putText(int ordinal, Recipe recipe, String[] text) {
+        index(ordinal, recipe, text);
+        textPending.clear(ordinal);
+    }
+
+    void remove(int ordinal) {
+        textPending.clear(ordinal);
+        if (ordinal >= termsOf.length || termsOf[ordinal] == null) return;
+        for (int id : termsOf[ordinal]) {
+            removePosting(id, ordinal);
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            int length = lengths[ordinal * FIELDS + f];
+            if (length > 0) fieldDocuments[f]--;
+            totalLengths[f] -= length;
+            lengths[ordinal * FIELDS + f] = 0;
+        }
+        termsOf[ordinal] = null;
+        documents--;
+    }
+
+    void clear() {
+        termIds.clear();
+        tokenIds.clear();
+        Arrays.fill(postings, null);
+        Arrays.fill(frequencies, null);
+        Arrays.fill(postingSizes, 0);
+        Arrays.fill(termsOf, null);
+        Arrays.fill(lengths, 0);
+        Arrays.fill(totalLengths, 0);
+        Arrays.fill(fieldDocuments, 0);
+        textPending.clear();
+        documents = 0;
+    }
+
+    boolean hasPendingText() {
+        return !textPending.isEmpty();
+    }
+
+    boolean isTextPending(int ordinal) {
+        return textPending.get(ordinal);
+    }
+
+    // Recipes still indexed without their long text
+    List<Recipe> pendingText(Recipe[] byOrdinal) {
+        List<Recipe> pending = new ArrayList<>(textPending.cardinality());
+        for (int i = textPending.nextSetBit(0); i >= 0; i = textPending.nextSetBit(i + 1)) {
+            pending.add(byOrdinal[i]);
+        }
+        return pending;
+    }
+
+    List<ScoredRecipe> search(String query, int max, Recipe[] byOrdinal) {
+        int[] queryTerms = queryTerms(query);
+        if (queryTerms.length == 0 || max <= 0 || documents == 0) return new ArrayList<>();
+
+        // Per-field length normalization: 1 - b + b * length / average length
+        float[] averages = new float[FIELDS];
+        for (int f = 0; f < FIELDS; f++) {
+            averages[f] = fieldDocuments[f] == 0 ? 1 : (float) totalLengths[f] / fieldDocuments[f];
+        }
+
+        OrdinalSlots candidates = new OrdinalSlots(64);
+        float[] score = new float[candidates.capacity()];
+        for (int id : queryTerms) {
+            int size = postingSizes[id];
+            if (size == 0) continue;
+            float idf = (float) Math.log(1 + (documents - size + 0.5) / (size + 0.5));
+            int[] list = postings[id];
+            char[] freqs = frequencies[id];
+            for (int p = 0; p < size; p++) {
+                int ordinal = list[p];
+                float tf = 0;
+                for (int f = 0, at = p * FIELDS; f < FIELDS; f++, at++) {
+                    if (freqs[at] == 0) continue;
+                    float norm = 1 - B + B * lengths[ordinal * FIELDS + f] / averages[f];
+                    tf += BOOSTS[f] * freqs[at] / norm;
+                }
+                int slot = candidates.add(ordinal);
+                if (slot == score.length) score = Arrays.copyOf(score, candidates.capacity());
+                score[slot] += idf * tf / (K1 + tf);
+            }
+        }
+
+        // Min-heap on score: the weakest kept candidate sits at the root
+        int[] heap = new int[Math.min(max, candidates.size())];
+        int size = 0;
+        for (int slot = 0; slot < candidates.size(); slot++) {
+            if (size < heap.length) {
+                heap[size] = slot;
+                siftUp(heap, size++, score, candidates);
+            } else if (better(slot, heap[0], score, candidates)) {
+                heap[0] = slot;
+                siftDown(heap, size, score, candidates);
+            }
+        }
+
+        ScoredRecipe[] ranked = new ScoredRecipe[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = heap[0];
+            ranked[i] = new ScoredRecipe(byOrdinal[candidates.ordinal(slot)], score[slot]);
+            heap[0] = heap[--size];
+            siftDown(heap, size, score, candidates);
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    // Distinct known term ids of the query; unknown terms cannot match anything
+    private int[] queryTerms(String query) {
+        String[] tokens = RecipeSearchIndex.tokenize(query.toLowerCase());
+        int[] ids = new int[tokens.length];
+        int count = 0;
+        for (String token : tokens) {
+            if (STOP_WORDS.contains(token)) continue;
+            Integer id = termIds.get(PorterStemmer.stem(token));
+            if (id == null) continue;
+            boolean seen = false;
+            for (int i = 0; i < count && !seen; i++) {
+                seen = ids[i] == id;
+            }
+            if (!seen) ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private void index(int ordinal, Recipe recipe, String[] text) {
+        remove(ordinal);
+        String[] fields = new String[FIELDS];
+        fields[NAME] = recipe.getName();
+        fields[INGREDIENTS] = recipe.getIngredients();
+        fields[CATEGORY] = recipe.getCategory();
+        fields[TAGS] = String.join(" ", recipe.getTags());
+        if (text != null) {
+            fields[DESCRIPTION] = text[0];
+            fields[INSTRUCTIONS] = text[1];
+            fields[NOTES] = text[2];
+        }
+
+        // Term id -> frequency per field, in first-seen order
+        Map<Integer, char[]> counts = new HashMap<>();
+        if (ordinal >= termsOf.length) {
+            int grown = Math.max(ordinal + 1, termsOf.length * 2);
+            termsOf = Arrays.copyOf(termsOf, grown);
+            lengths = Arrays.copyOf(lengths, grown * FIELDS);
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            if (fields[f] == null) continue;
+            int length = 0;
+            for (String token : RecipeSearchIndex.tokenize(fields[f].toLowerCase())) {
+                if (STOP_WORDS.contains(token)) continue;
+                length++;
+                int id = termId(token);
+                char[] perField = counts.computeIfAbsent(id, t -> new char[FIELDS]);
+                if (perField[f] < Character.MAX_VALUE) perField[f]++;
+            }
+            lengths[ordinal * FIELDS + f] = length;
+            totalLengths[f] += length;
+            if (length > 0) fieldDocuments[f]++;
+        }
+
+        int[] ids = new int[counts.size()];
+        int i = 0;
+        for (Map.Entry<Integer, char[]> entry : counts.entrySet()) {
+            ids[i++] = entry.getKey();
+            addPosting(entry.getKey(), ordinal, entry.getValue());
+        }
+        Arrays.sort(ids);
+        termsOf[ordinal] = ids;
+        documents++;
+    }
+
+    private int termId(String token) {
+        Integer id = tokenIds.get(token);
+        if (id == null) {
+            id = termIds.computeIfAbsent(PorterStemmer.stem(token), t -> termIds.size());
+            tokenIds.put(token, id);
+        }
+        return id;
+    }
+
+    // Compares candidate slots: higher score, then insertion order
+    private static boolean better(int a, int b, float[] score, OrdinalSlots candidates) {
+        if (score[a] != score[b]) return score[a] > score[b];
+        return candidates.ordinal(a) < candidates.ordinal(b);
+    }
+
+    private static void siftUp(int[] heap, int i, float[] score, OrdinalSlots candidates) {
+        int item = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], item, score, candidates)) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, float[] score, OrdinalSlots candidates) {
+        if (size == 0) return;
+        int item = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && better(heap[child], heap[child + 1], score, candidates)) child++;
+            if (!better(item, heap[child], score, candidates)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+
+    private void addPosting(int id, int ordinal, char[] fieldFrequencies) {
+        if (id >= postings.length) {
+            int grown = Math.max(id + 1, postings.length * 2);
+            postings = Arrays.copyOf(postings, grown);
+            frequencies = Arrays.copyOf(frequencies, grown);
+            postingSizes = Arrays.copyOf(postingSizes, grown);
+        }
+        int[] list = postings[id];
+        char[] freqs = frequencies[id];
+        int size = postingSizes[id];
+        if (list == null) {
+            list = new int[4];
+            freqs = new char[4 * FIELDS];
+        }
+        // Ordinals are handed out in increasing order, so this is almost always an append
+        int at = size == 0 || list[size - 1] < ordinal ? size : -Arrays.binarySearch(list, 0, size, ordinal) - 1;
+        if (at < 0) return;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2 * FIELDS);
+        }
+        System.arraycopy(list, at, list, at + 1, size - at);
+        System.arraycopy(freqs, at * FIELDS, freqs, (at + 1) * FIELDS, (size - at) * FIELDS);
+        list[at] = ordinal;
+        System.arraycopy(fieldFrequencies, 0, freqs, at * FIELDS, FIELDS);
+        postings[id] = list;
+        frequencies[id] = freqs;
+        postingSizes[id] = size + 1;
+    }
+
+    private void removePosting(int id, int ordinal) {
+        int[] list = postings[id];
+        int size = postingSizes[id];
+        int at = Arrays.binarySearch(list, 0, size, ordinal);
+        if (at < 0) return;
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        System.arraycopy(frequencies[id], (at + 1) * FIELDS, frequencies[id], at * FIELDS, (size - at - 1) * FIELDS);
+        postingSizes[id] = size - 1;
+    }
+}
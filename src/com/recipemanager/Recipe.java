@@ -1,29 +1,66 @@
 package com.recipemanager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class Recipe {
+    private int id;
     private String name;
-    private String description;
     private String ingredients;
-    private String instructions;
-    private String category;
+    // Parsed once from ingredients; shared name strings come from IngredientDictionary
+    private Ingredient[] parsedIngredients;
+    // LabelDictionary codes instead of a String per row; 0 is null
+    private char category;
+    private char servingUnit;
     private int calories;
     private int servings;
-    private String servingUnit;
     private int prepTime;
     private int cookTime;
-    private String difficulty;
-    private List<String> tags;
+    private Difficulty difficulty;
+    // Sorted TagDictionary ids; replaced, never modified in place
+    private int[] tagIds = NO_TAGS;
     private double rating;
-    private int servingSize;
     private boolean isFavorite;
-    private String notes;
     private double protein;
     private double carbs;
     private double fat;
 
+    // description, instructions and notes are swapped as one immutable unit so concurrent
+    // readers never see a mix; null while they are still in the database (summary load).
+    // Instructions and notes are rarely read, so they are held as CompressedText bytes
+    private volatile Text text;
+    private volatile RecipeTextLoader textLoader;
+
+    // Bumped by every public setter; the repository copies it to savedEdits when the change is
+    // submitted, so a refresh can tell a recipe edited in memory but not submitted yet
+    private volatile int edits;
+    private int savedEdits;
+
+    private static final int[] NO_TAGS = new int[0];
+
+    private static final class Text {
+        static final Text UNAVAILABLE = of(null, null, null);
+
+        final String description;
+        final byte[] instructions;
+        final byte[] notes;
+
+        private Text(String description, byte[] instructions, byte[] notes) {
+            this.description = description;
+            this.instructions = instructions;
+            this.notes = notes;
+        }
+
+        static Text of(String description, String instructions, String notes) {
+            return new Text(description, CompressedText.pack(instructions), CompressedText.pack(notes));
+        }
+
+        String instructions() { return CompressedText.unpack(instructions); }
+        String notes() { return CompressedText.unpack(notes); }
+    }
+
     // ✅ Constructor used by DB loading (full fields)
     public Recipe(String name, String description, String ingredients, String instructions,
                   String category, int calories, int servings, String servingUnit,
@@ -31,21 +68,18 @@ public class Recipe {
                   boolean isFavorite, String notes,
                   double protein, double carbs, double fat) {
         this.name = name;
-        this.description = description;
+        this.text = Text.of(description, instructions, notes);
         this.ingredients = ingredients;
-        this.instructions = instructions;
-        this.category = category;
+        this.parsedIngredients = IngredientParser.parse(ingredients);
+        this.category = LabelDictionary.CATEGORIES.encode(category);
         this.calories = calories;
         this.servings = servings;
-        this.servingUnit = servingUnit;
+        this.servingUnit = LabelDictionary.SERVING_UNITS.encode(servingUnit);
         this.prepTime = prepTime;
         this.cookTime = cookTime;
-        this.difficulty = difficulty;
-        this.tags = new ArrayList<>();
+        this.difficulty = Difficulty.fromLabel(difficulty);
         this.rating = 0.0;
-        this.servingSize = servings;
         this.isFavorite = isFavorite;
-        this.notes = notes;
         this.protein = protein;
         this.carbs = carbs;
         this.fat = fat;
@@ -68,73 +102,184 @@ public class Recipe {
 
     // ✅ Utility: full recipe details
     public String getDetails() {
+        Text text = text();
+        String servingUnit = getServingUnit();
         return "Name: " + name +
-               "\nDescription: " + description +
-               "\nCategory: " + category +
-               "\nDifficulty: " + difficulty +
+               "\nDescription: " + text.description +
+               "\nCategory: " + getCategory() +
+               "\nDifficulty: " + getDifficulty() +
                "\nPreparation Time: " + prepTime + " minutes" +
                "\nCooking Time: " + cookTime + " minutes" +
                "\nTotal Time: " + (prepTime + cookTime) + " minutes" +
-               "\nServing Size: " + servingSize + " people" +
+               "\nServing Size: " + servings + " people" +
                "\nNutritional Information:" +
                "\n  - Calories per " + servingUnit + ": " + calories +
                "\n  - Total calories: " + getTotalCalories() +
                "\n  - Servings: " + servings + " " + servingUnit + (servings > 1 ? "s" : "") +
                "\nRating: " + String.format("%.1f", rating) + "/5.0" +
-               "\nTags: " + String.join(", ", tags) +
+               "\nTags: " + String.join(", ", getTags()) +
                "\nIngredients:\n" + ingredients +
-               "\nInstructions:\n" + instructions;
+               "\nInstructions:\n" + text.instructions();
     }
 
     // ✅ Utility methods
     public void addTag(String tag) {
-        if (!tags.contains(tag.toLowerCase())) {
-            tags.add(tag.toLowerCase());
+        int id = TagDictionary.intern(tag);
+        int[] current = tagIds;
+        int at = Arrays.binarySearch(current, id);
+        if (at < 0) {
+            at = -at - 1;
+            int[] next = new int[current.length + 1];
+            System.arraycopy(current, 0, next, 0, at);
+            next[at] = id;
+            System.arraycopy(current, at, next, at + 1, current.length - at);
+            tagIds = next;
+            edits++;
         }
     }
 
+    public boolean hasTag(String tag) {
+        int id = TagDictionary.lookup(tag);
+        return id >= 0 && Arrays.binarySearch(tagIds, id) >= 0;
+    }
+
     public int getTotalCalories() {
         return calories * servings;
     }
 
     public String getCaloriesPerServing() {
-        return calories + " calories per " + servingUnit;
+        return calories + " calories per " + getServingUnit();
+    }
+
+    // ✅ Lazy text: summary-loaded recipes fetch their long text columns on first access
+    synchronized void attachTextLoader(RecipeTextLoader loader) {
+        this.textLoader = loader;
+        releaseText();
+    }
+
+    boolean isTextLoaded() { return text != null; }
+
+    // Description, instructions and notes if they are in memory, without triggering a load; else null
+    String[] residentText() {
+        Text current = text;
+        return current == null ? null : new String[]{current.description, current.instructions(), current.notes()};
+    }
+
+    synchronized void applyText(String description, String instructions, String notes) {
+        this.text = Text.of(description, instructions, notes);
+    }
+
+    // Drops the text again so a bounded cache can reclaim it; no-op once the recipe owns its text
+    synchronized void releaseText() {
+        if (textLoader == null) return;
+        this.text = null;
+    }
+
+    int editCount() { return edits; }
+
+    // Called by the repository under its write lock once the edits up to editCount are submitted
+    void markSaved(int editCount) { savedEdits = editCount; }
+
+    boolean hasUnsavedEdits() { return edits != savedEdits; }
+
+    // ✅ Delta sync: take over the summary columns of a freshly read row for this recipe
+    void copySummaryFrom(Recipe row) {
+        this.id = row.id;
+        this.ingredients = row.ingredients;
+        this.parsedIngredients = row.parsedIngredients;
+        this.category = row.category;
+        this.calories = row.calories;
+        this.servings = row.servings;
+        this.servingUnit = row.servingUnit;
+        this.prepTime = row.prepTime;
+        this.cookTime = row.cookTime;
+        this.difficulty = row.difficulty;
+        this.rating = row.rating;
+        this.isFavorite = row.isFavorite;
+        this.protein = row.protein;
+        this.carbs = row.carbs;
+        this.fat = row.fat;
+        this.tagIds = row.tagIds;
+        // Text may have changed too; drop it so the next read fetches the new version
+        attachTextLoader(row.textLoader);
+    }
+
+    // The loader is called without holding this recipe's lock; it calls back into applyText
+    private Text text() {
+        Text current = text;
+        if (current == null) {
+            RecipeTextLoader loader = textLoader;
+            if (loader != null) {
+                loader.loadText(this);
+            }
+            current = text;
+        }
+        return current != null ? current : Text.UNAVAILABLE;
     }
 
     // ✅ Getters / Setters
+    public int getId() { return id; }
+    void setId(int id) { this.id = id; }
+
     public String getName() { return name; }
-    public String getDescription() { return description; }
+    public String getDescription() { return text().description; }
     public String getIngredients() { return ingredients; }
-    public String getInstructions() { return instructions; }
-    public String getCategory() { return category; }
+    public List<Ingredient> getParsedIngredients() {
+        return Collections.unmodifiableList(Arrays.asList(parsedIngredients));
+    }
+    Ingredient[] parsedIngredients() { return parsedIngredients; }
+    public String getInstructions() { return text().instructions(); }
+    public String getCategory() { return LabelDictionary.CATEGORIES.decode(category); }
     public int getCalories() { return calories; }
     public int getServings() { return servings; }
-    public String getServingUnit() { return servingUnit; }
+    public String getServingUnit() { return LabelDictionary.SERVING_UNITS.decode(servingUnit); }
     public int getPrepTime() { return prepTime; }
     public int getCookTime() { return cookTime; }
-    public String getDifficulty() { return difficulty; }
-    public List<String> getTags() { return new ArrayList<>(tags); }
+    public String getDifficulty() { return difficulty == null ? null : difficulty.getLabel(); }
+    public Difficulty getDifficultyLevel() { return difficulty; }
+    public List<String> getTags() {
+        int[] ids = tagIds;
+        if (ids.length == 0) return Collections.emptyList();
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(TagDictionary.name(id));
+        }
+        return names;
+    }
+
+    int[] tagIds() { return tagIds; }
+    void setTagIds(int[] sortedIds) { this.tagIds = sortedIds.length == 0 ? NO_TAGS : sortedIds; }
     public double getRating() { return rating; }
     public void setRating(double rating) {
         if (rating >= 0 && rating <= 5) {
             this.rating = rating;
+            edits++;
         }
     }
 
-    public int getServingSize() { return servingSize; }
+    // Same as getServings(); kept for callers of the old separate field
+    public int getServingSize() { return servings; }
 
     public boolean isFavorite() { return isFavorite; }
-    public void setFavorite(boolean favorite) { this.isFavorite = favorite; }
+    public void setFavorite(boolean favorite) { this.isFavorite = favorite; edits++; }
 
-    public String getNotes() { return notes; }
-    public void setNotes(String notes) { this.notes = notes; }
+    public String getNotes() { return text().notes(); }
+    public void setNotes(String notes) {
+        // An edited recipe keeps its text in memory so eviction cannot drop unsaved changes
+        Text current = text();
+        synchronized (this) {
+            this.textLoader = null;
+            this.text = new Text(current.description, current.instructions, CompressedText.pack(notes));
+        }
+        edits++;
+    }
 
     public double getProtein() { return protein; }
-    public void setProtein(double protein) { this.protein = protein; }
+    public void setProtein(double protein) { this.protein = protein; edits++; }
 
     public double getCarbs() { return carbs; }
-    public void setCarbs(double carbs) { this.carbs = carbs; }
+    public void setCarbs(double carbs) { this.carbs = carbs; edits++; }
 
     public double getFat() { return fat; }
-    public void setFat(double fat) { this.fat = fat; }
+    public void setFat(double fat) { this.fat = fat; edits++; }
 }
@@ -1,21 +1,39 @@
 package com.recipemanager;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.nio.file.Path;
+
 public class RecipeApp extends Application {
 
     private RecipeRepository recipeRepository;
+    private AsyncRecipeRepository asyncRepository;
     private RecipeView recipeView;
 
     @Override
     public void start(Stage primaryStage) {
-        // Initialize your repository (database-backed)
-        recipeRepository = new RecipeRepository();
+        // JMX MBeans (com.recipemanager:type=Operation) and the periodic metrics log
+        Metrics.install();
+
+        // Initialize your repository (database-backed); it loads after the window is shown
+        recipeRepository = new RecipeRepository(false);
+        if (Boolean.getBoolean("recipemanager.writeBehind")) {
+            recipeRepository.enableWriteBehind(
+                    Integer.getInteger("recipemanager.writeBehind.batchSize", 500),
+                    Long.getLong("recipemanager.writeBehind.flushIntervalMs", 1_000));
+        }
+
+        Metrics.addSource("queryCache", recipeRepository::getQueryCacheStats);
+        asyncRepository = new AsyncRecipeRepository(recipeRepository);
+
+        // -Drecipemanager.pushdown=true leaves the recipes in MySQL and pages them into the list
+        boolean pushdown = Boolean.getBoolean("recipemanager.pushdown");
 
         // Initialize your main UI view
-        recipeView = new RecipeView(recipeRepository);
+        recipeView = new RecipeView(asyncRepository, pushdown);
 
         // Setup the main Scene with RecipeView
         Scene scene = new Scene(recipeView.getView(), 1000, 700);
@@ -24,6 +42,31 @@ public class RecipeApp extends Application {
         primaryStage.setTitle("🍲 Recipe Manager");
         primaryStage.setScene(scene);
         primaryStage.show();
+
+        if (pushdown) {
+            recipeView.updateRecipeList();
+            return;
+        }
+
+        // Show the last snapshot right away, then catch up with the database behind it
+        Path snapshot = RecipeRepository.defaultSnapshotPath();
+        asyncRepository.openSnapshot(snapshot)
+                .thenRunAsync(recipeView::updateRecipeList, Platform::runLater)
+                .thenCompose(ignored -> asyncRepository.reconcileSnapshot(snapshot))
+                .thenRunAsync(recipeView::updateRecipeList, Platform::runLater)
+                // Last, so the list is usable while descriptions and instructions are indexed
+                .thenCompose(ignored -> asyncRepository.indexFullText());
+    }
+
+    @Override
+    public void stop() throws Exception {
+        // Push out any queued write-behind changes before the JVM exits
+        if (asyncRepository != null) {
+            asyncRepository.close();
+        }
+        DatabaseManager.shutdown();
+        Metrics.log();
+        Metrics.shutdown();
     }
 
     public static void main(String[] args) {
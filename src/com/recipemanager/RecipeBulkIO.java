@@ -0,0 +1,484 @@
+package com.recipemanager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import and export of recipes as JSON Lines ({@code .jsonl}) or CSV ({@code .csv}).
+ *
+ * Files are streamed through buffered NIO channels one record at a time, so memory stays
+ * flat whatever the file size. Imports bind rows straight into batched prepared statements
+ * (categories and difficulties resolved through a {@link ReferenceIdCache}) and commit every
+ * {@code commitEvery} rows. A record whose name already exists (in the table or earlier in
+ * the file) is skipped with its tags and counted as skipped. Exports stream
+ * the table with a row-by-row result set. Records use the column names of the recipes
+ * table plus {@code category}, {@code difficulty} and {@code tags} ({@code ';'}-separated in
+ * CSV, an array in JSON).
+ *
+ * A running {@link RecipeRepository} does not see imported rows until its next
+ * {@link RecipeRepository#refresh()}.
+ */
+public class RecipeBulkIO {
+
+    public enum Format { JSON_LINES, CSV }
+
+    private static final String[] COLUMNS = {
+            "name", "description", "ingredients", "instructions", "category", "calories", "servings",
+            "serving_unit", "prep_time", "cook_time", "difficulty", "is_favorite", "notes",
+            "protein", "carbs", "fat", "rating", "tags"
+    };
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO recipes (" +
+            "name, description, ingredients, instructions, category_id, calories, servings, serving_unit, " +
+            "prep_time, cook_time, difficulty_id, is_favorite, notes, protein, carbs, fat, rating) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TAG_SQL = "INSERT IGNORE INTO tags (name) VALUES (?)";
+
+    private static final String INSERT_RECIPE_TAG_SQL = "INSERT IGNORE INTO recipe_tags (recipe_id, tag_id) " +
+            "SELECT r.id, t.id FROM recipes r JOIN tags t ON t.name = ? WHERE r.name = ?";
+
+    private static final String EXPORT_QUERY =
+            "SELECT r.name, r.description, r.ingredients, r.instructions, c.name AS category, r.calories, " +
+            "r.servings, r.serving_unit, r.prep_time, r.cook_time, d.label AS difficulty, r.is_favorite, " +
+            "r.notes, r.protein, r.carbs, r.fat, r.rating, " +
+            "(SELECT GROUP_CONCAT(t.name ORDER BY t.name SEPARATOR ';') FROM recipe_tags rt " +
+            " JOIN tags t ON t.id = rt.tag_id WHERE rt.recipe_id = r.id) AS tags " +
+            "FROM recipes r " +
+            "LEFT JOIN categories c ON r.category_id = c.id " +
+            "LEFT JOIN difficulty_levels d ON r.difficulty_id = d.id " +
+            "ORDER BY r.id";
+
+    private static final String DEFAULT_CATEGORY = "Other";
+    private static final String DEFAULT_DIFFICULTY = Difficulty.MEDIUM.getLabel();
+    private static final int IO_BUFFER = 1 << 16;
+    // Indexes of the import counters
+    private static final int IMPORTED = 0;
+    private static final int SKIPPED = 1;
+
+    private final int batchSize;
+    private final int commitEvery;
+    private final ReferenceIdCache referenceIds = new ReferenceIdCache();
+
+    public RecipeBulkIO() {
+        this(1_000, 10_000);
+    }
+
+    // Rows per executeBatch and per commit; commitEvery is rounded up to whole batches
+    public RecipeBulkIO(int batchSize, int commitEvery) {
+        this.batchSize = Math.max(1, batchSize);
+        this.commitEvery = Math.max(this.batchSize, commitEvery);
+    }
+
+    // .csv is read as CSV, anything else as JSON Lines
+    public static Format formatOf(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+    }
+
+    public BulkProgress importFile(Path file, BulkProgressListener listener) throws IOException, SQLException {
+        return importFile(file, formatOf(file), listener);
+    }
+
+    public BulkProgress importFile(Path file, Format format, BulkProgressListener listener)
+            throws IOException, SQLException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel,
+                StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE), IO_BUFFER), IO_BUFFER);
+        try (BulkRecordReader records = format == Format.CSV
+                ? BulkRecordReader.csv(reader) : BulkRecordReader.jsonLines(reader)) {
+            return importRecords(records, listener);
+        }
+    }
+
+    public BulkProgress exportFile(Path file, BulkProgressListener listener) throws IOException, SQLException {
+        return exportFile(file, formatOf(file), listener);
+    }
+
+    public BulkProgress exportFile(Path file, Format format, BulkProgressListener listener)
+            throws IOException, SQLException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try (Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), IO_BUFFER), IO_BUFFER)) {
+            return exportRows(out, format, listener);
+        }
+    }
+
+    private BulkProgress importRecords(BulkRecordReader records, BulkProgressListener listener)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        long[] counts = new long[2];
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL);
+                 PreparedStatement insertTag = conn.prepareStatement(INSERT_TAG_SQL);
+                 PreparedStatement insertRecipeTag = conn.prepareStatement(INSERT_RECIPE_TAG_SQL)) {
+                List<PendingRecord> batch = new ArrayList<>(batchSize);
+                long uncommitted = 0;
+
+                while (true) {
+                    long line = records.line();
+                    Map<String, String> record = records.next();
+                    if (record == null) break;
+                    batch.add(new PendingRecord(line, record));
+                    if (batch.size() == batchSize) {
+                        uncommitted += writeBatch(conn, insert, insertTag, insertRecipeTag, batch, counts);
+                        if (uncommitted >= commitEvery) {
+                            conn.commit();
+                            uncommitted = 0;
+                            report(listener, counts[IMPORTED], counts[SKIPPED], start, false);
+                        }
+                    }
+                }
+                writeBatch(conn, insert, insertTag, insertRecipeTag, batch, counts);
+                conn.commit();
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                // Categories created by the rolled-back transaction are gone again
+                referenceIds.invalidate();
+                throw e;
+            }
+        }
+        return report(listener, counts[IMPORTED], counts[SKIPPED], start, true);
+    }
+
+    private static final class PendingRecord {
+        final long line;
+        final Map<String, String> record;
+
+        PendingRecord(long line, Map<String, String> record) {
+            this.line = line;
+            this.record = record;
+        }
+
+        String name() {
+            String name = record.get("name");
+            return name == null ? null : name.trim();
+        }
+    }
+
+    /*
+     * Inserts the batch and tags only the rows that went in, adding to counts; returns the rows
+     * inserted. With rewriteBatchedStatements Connector/J reports SUCCESS_NO_INFO for every row
+     * of a multi-row INSERT, so names already in the table (or earlier in the file) are looked
+     * up first and skipped; a count of 0 still marks a row INSERT IGNORE dropped, i.e. a name
+     * some other client took in between. Names compare case-insensitively, like the UNIQUE key
+     * under MySQL's default collation.
+     */
+    private int writeBatch(Connection conn, PreparedStatement insert, PreparedStatement insertTag,
+                           PreparedStatement insertRecipeTag, List<PendingRecord> batch, long[] counts)
+            throws SQLException {
+        Set<String> taken = existingNames(conn, batch);
+        List<PendingRecord> bound = new ArrayList<>(batch.size());
+        for (PendingRecord pending : batch) {
+            String name = pending.name();
+            if (name != null && !name.isEmpty() && !taken.add(name.toLowerCase(Locale.ROOT))) {
+                System.err.println("❌ Skipping record at line " + pending.line + ": " + name + " already exists");
+                counts[SKIPPED]++;
+                continue;
+            }
+            try {
+                bindRecord(conn, insert, pending.record);
+            } catch (IllegalArgumentException e) {
+                System.err.println("❌ Skipping record at line " + pending.line + ": " + e.getMessage());
+                counts[SKIPPED]++;
+                continue;
+            }
+            insert.addBatch();
+            bound.add(pending);
+        }
+        batch.clear();
+        if (bound.isEmpty()) return 0;
+
+        int[] updates = insert.executeBatch();
+        Set<String> batchTags = new LinkedHashSet<>();
+        int inserted = 0, tagRows = 0;
+        for (int i = 0; i < bound.size(); i++) {
+            if (i < updates.length && updates[i] == 0) {
+                counts[SKIPPED]++;
+                continue;
+            }
+            inserted++;
+            String tags = bound.get(i).record.get("tags");
+            if (tags == null) continue;
+            for (String tag : tags.split(String.valueOf(BulkRecordReader.LIST_SEPARATOR))) {
+                String tagName = tag.trim().toLowerCase();
+                if (tagName.isEmpty()) continue;
+                batchTags.add(tagName);
+                insertRecipeTag.setString(1, tagName);
+                insertRecipeTag.setString(2, bound.get(i).name());
+                insertRecipeTag.addBatch();
+                tagRows++;
+            }
+        }
+        counts[IMPORTED] += inserted;
+        if (tagRows > 0) {
+            for (String tag : batchTags) {
+                insertTag.setString(1, tag);
+                insertTag.addBatch();
+            }
+            insertTag.executeBatch();
+            insertRecipeTag.executeBatch();
+        }
+        return inserted;
+    }
+
+    // Lower-cased names of the batch that the recipes table already holds
+    private static Set<String> existingNames(Connection conn, List<PendingRecord> batch) throws SQLException {
+        List<String> names = new ArrayList<>(batch.size());
+        for (PendingRecord pending : batch) {
+            String name = pending.name();
+            if (name != null && !name.isEmpty()) names.add(name);
+        }
+        Set<String> existing = new HashSet<>();
+        if (names.isEmpty()) return existing;
+        StringBuilder sql = new StringBuilder("SELECT name FROM recipes WHERE name IN (");
+        for (int i = 0; i < names.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < names.size(); i++) {
+                stmt.setString(i + 1, names.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+
+    // Binds all 17 columns; throws IllegalArgumentException for a record that cannot be stored
+    private void bindRecord(Connection conn, PreparedStatement stmt, Map<String, String> record) throws SQLException {
+        String name = record.get("name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("missing name");
+        }
+        String category = text(record, "category", DEFAULT_CATEGORY);
+        String difficulty = text(record, "difficulty", DEFAULT_DIFFICULTY);
+        Integer difficultyId = referenceIds.difficultyId(conn, difficulty);
+        if (difficultyId == null) {
+            difficultyId = referenceIds.difficultyId(conn, DEFAULT_DIFFICULTY);
+        }
+
+        stmt.setString(1, name.trim());
+        stmt.setString(2, record.get("description"));
+        stmt.setString(3, record.get("ingredients"));
+        stmt.setString(4, record.get("instructions"));
+        setId(stmt, 5, referenceIds.ensureCategoryId(conn, category));
+        stmt.setInt(6, intValue(record, "calories"));
+        stmt.setInt(7, intValue(record, "servings"));
+        stmt.setString(8, record.get("servingunit"));
+        stmt.setInt(9, intValue(record, "preptime"));
+        stmt.setInt(10, intValue(record, "cooktime"));
+        setId(stmt, 11, difficultyId);
+        String favorite = record.getOrDefault("isfavorite", record.get("favorite"));
+        stmt.setBoolean(12, "true".equalsIgnoreCase(favorite) || "1".equals(favorite));
+        stmt.setString(13, record.get("notes"));
+        stmt.setDouble(14, doubleValue(record, "protein"));
+        stmt.setDouble(15, doubleValue(record, "carbs"));
+        stmt.setDouble(16, doubleValue(record, "fat"));
+        stmt.setDouble(17, doubleValue(record, "rating"));
+    }
+
+    private static String text(Map<String, String> record, String key, String fallback) {
+        String value = record.get(key);
+        return value == null || value.isBlank() ? fallback : value.trim();
+    }
+
+    private static int intValue(Map<String, String> record, String key) {
+        String value = record.get(key);
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return (int) Math.round(Double.parseDouble(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value);
+        }
+    }
+
+    private static double doubleValue(Map<String, String> record, String key) {
+        String value = record.get(key);
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value);
+        }
+    }
+
+    private static void setId(PreparedStatement stmt, int index, Integer id) throws SQLException {
+        if (id == null) {
+            stmt.setNull(index, Types.INTEGER);
+        } else {
+            stmt.setInt(index, id);
+        }
+    }
+
+    private BulkProgress exportRows(Writer out, Format format, BulkProgressListener listener)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+
+        if (format == Format.CSV) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(COLUMNS[i]);
+            }
+            out.write('\n');
+        }
+
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Rows are streamed instead of buffering the whole result
+            DatabaseManager.streamResults(stmt);
+            try (ResultSet rs = stmt.executeQuery(EXPORT_QUERY)) {
+                while (rs.next()) {
+                    if (format == Format.CSV) {
+                        writeCsvRow(out, rs);
+                    } else {
+                        writeJsonRow(out, rs);
+                    }
+                    if (++rows % commitEvery == 0) {
+                        report(listener, rows, 0, start, false);
+                    }
+                }
+            }
+        }
+        out.flush();
+        return report(listener, rows, 0, start, true);
+    }
+
+    private static void writeJsonRow(Writer out, ResultSet rs) throws IOException, SQLException {
+        out.write('{');
+        for (int i = 0; i < COLUMNS.length; i++) {
+            String column = COLUMNS[i];
+            if (i > 0) out.write(',');
+            writeJsonString(out, column);
+            out.write(':');
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                out.write(column.equals("tags") ? "[]" : "null");
+            } else if (column.equals("tags")) {
+                out.write('[');
+                String[] tags = value.split(String.valueOf(BulkRecordReader.LIST_SEPARATOR));
+                for (int t = 0; t < tags.length; t++) {
+                    if (t > 0) out.write(',');
+                    writeJsonString(out, tags[t]);
+                }
+                out.write(']');
+            } else if (column.equals("is_favorite")) {
+                out.write(rs.getBoolean(i + 1) ? "true" : "false");
+            } else if (isNumeric(rs.getMetaData().getColumnType(i + 1))) {
+                out.write(value);
+            } else {
+                writeJsonString(out, value);
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER: case Types.SMALLINT: case Types.TINYINT: case Types.BIGINT:
+            case Types.DOUBLE: case Types.FLOAT: case Types.REAL: case Types.DECIMAL: case Types.NUMERIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    private static void writeCsvRow(Writer out, ResultSet rs) throws IOException, SQLException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) out.write(',');
+            String value = COLUMNS[i].equals("is_favorite")
+                    ? String.valueOf(rs.getBoolean(i + 1)) : rs.getString(i + 1);
+            if (value == null) continue;
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (quote) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static BulkProgress report(BulkProgressListener listener, long rows, long skipped, long startNanos,
+                                       boolean done) {
+        BulkProgress progress = new BulkProgress(rows, skipped, (System.nanoTime() - startNanos) / 1_000_000, done);
+        if (listener != null) {
+            listener.onProgress(progress);
+        }
+        return progress;
+    }
+
+    // Usage: RecipeBulkIO import|export <file.jsonl|file.csv>
+    public static void main(String[] args) {
+        if (args.length != 2 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.err.println("Usage: RecipeBulkIO import|export <file.jsonl|file.csv>");
+            return;
+        }
+        Path file = Paths.get(args[1]);
+        RecipeBulkIO bulk = new RecipeBulkIO();
+        BulkProgressListener log = p -> System.out.println((p.isDone() ? "✅ " : "… ") + p);
+        try {
+            if (args[0].equals("import")) {
+                bulk.importFile(file, log);
+            } else {
+                bulk.exportFile(file, log);
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("❌ Bulk " + args[0] + " failed: " + e.getMessage());
+        } finally {
+            DatabaseManager.shutdown();
+        }
+    }
+}
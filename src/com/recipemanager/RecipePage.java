@@ -0,0 +1,34 @@
+package com.recipemanager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of {@link RecipeRepository#queryDatabase}. Pass {@link #getNextKey()} as
+ * {@code afterId} to fetch the page after it.
+ */
+public class RecipePage {
+
+    private final List<Recipe> recipes;
+    private final int nextKey;
+    private final boolean more;
+
+    RecipePage(List<Recipe> recipes, int nextKey, boolean more) {
+        this.recipes = Collections.unmodifiableList(recipes);
+        this.nextKey = nextKey;
+        this.more = more;
+    }
+
+    public List<Recipe> getRecipes() {
+        return recipes;
+    }
+
+    // Id of the last recipe on this page, or the requested afterId when the page is empty
+    public int getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return more;
+    }
+}
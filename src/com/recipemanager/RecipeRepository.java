@@ -1,117 +1,1053 @@
 package com.recipemanager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * In-memory recipe store backed by MySQL.
+ *
+ * Safe for concurrent use: mutations of the in-memory state are serialized by a write lock,
+ * index queries share a read lock, and {@link #getAllRecipes()}, {@link #findByName(String)}
+ * and query cache hits of {@link #searchRecipes} and {@link #getRecipesByCategory} are
+ * lock-free (an immutable snapshot, a concurrent map and immutable cached results, which
+ * writers drop before they release the write lock). Database I/O always happens outside the
+ * lock, so a slow statement never blocks readers. ConcurrentReadBenchmark measures what the
+ * read lock costs the remaining queries.
+ *
+ * For catalogs too large to hold in memory, construct it with {@code loadNow = false}, never
+ * load it, and use the pushdown methods instead ({@link #queryDatabase},
+ * {@link #findInDatabase}, {@link #suggestFromDatabase}): they answer from MySQL's indexes a
+ * page at a time and keep nothing resident.
+ */
 public class RecipeRepository {
-    private final List<Recipe> recipes = new ArrayList<>();
-    private final List<String> categories = new ArrayList<>();
+    // Summary projection: everything the list, search and filters use. description,
+    // instructions and notes stay in the database until a recipe is opened.
+    private static final String SUMMARY_QUERY =
+            "SELECT r.id, r.name, r.ingredients, r.calories, r.servings, r.serving_unit, " +
+            "r.prep_time, r.cook_time, r.is_favorite, r.protein, r.carbs, r.fat, r.rating, " +
+            "c.name AS category_name, d.label AS difficulty_label " +
+            "FROM recipes r " +
+            "JOIN categories c ON r.category_id = c.id " +
+            "JOIN difficulty_levels d ON r.difficulty_id = d.id";
+
+    private static final String TEXT_QUERY = "SELECT id, description, instructions, notes FROM recipes";
+    // Above this many recipes indexFullText() streams the whole table instead of batched id lookups
+    private static final int TEXT_SCAN_THRESHOLD = 5_000;
+    private static final int TEXT_BATCH_SIZE = 500;
+
+    private static final long SYNC_OVERLAP_MS = 5_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    // Orders load() and refresh() so the sync watermark only moves forward
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Guarded by lock. Insertion-ordered; name is UNIQUE in the schema
+    private final Map<String, Recipe> recipes = new LinkedHashMap<>();
+    private final Set<String> categories = new LinkedHashSet<>();
+    private final RecipeSearchIndex searchIndex = new RecipeSearchIndex();
+    private final SuggestionEngine suggestionEngine = new SuggestionEngine();
+    // Dense per-recipe ordinals for the columnar side stores; freed slots stay empty until the next full load
+    private final Map<Recipe, Integer> ordinals = new IdentityHashMap<>();
+    private Recipe[] byOrdinal = new Recipe[1024];
+    private int nextOrdinal;
+    private final NutritionStore nutritionStore = new NutritionStore();
+    private final FacetIndex facetIndex = new FacetIndex();
+    private final PantryIndex pantryIndex = new PantryIndex();
+    private final RankedSearchIndex rankedIndex = new RankedSearchIndex();
+    private final FuzzyIndex fuzzyIndex = new FuzzyIndex();
+
+    // Lock-free lookups, written under the write lock (or by the DB thread that learns an id)
+    private final Map<String, Recipe> recipesByName = new ConcurrentHashMap<>();
+    private final Map<Integer, Recipe> recipesById = new ConcurrentHashMap<>();
+
+    // searchRecipes and getRecipesByCategory results, -Drecipemanager.queryCache.size entries
+    // (0 turns it off) holding at most -Drecipemanager.queryCache.weight recipe references
+    private final QueryCache queryCache = new QueryCache(
+            Integer.getInteger("recipemanager.queryCache.size", 256),
+            Long.getLong("recipemanager.queryCache.weight", 200_000));
+
+    // Category and difficulty ids for pushdown predicates
+    private final ReferenceIdCache referenceIds = new ReferenceIdCache();
+
+    private final RecipeTextCache textCache =
+            new RecipeTextCache(Integer.getInteger("recipemanager.textCache.size", 1_000));
+    private volatile RecipeWriteBehind writeBehind;
+    // Immutable view handed out by getAllRecipes(); null until rebuilt after a change
+    private volatile List<Recipe> snapshot;
+    private Timestamp syncWatermark;
+    // Database fingerprint of the snapshot loaded by openSnapshot(); null once reconciled
+    private RecipeSnapshot.Fingerprint snapshotFingerprint;
 
     public RecipeRepository() {
-        loadFromDatabase();
+        this(true);
+    }
+
+    // Pass false to show the UI first and call load() (e.g. through AsyncRecipeRepository) later
+    public RecipeRepository(boolean loadNow) {
+        if (loadNow) {
+            loadFromDatabase();
+        }
     }
 
 
     public void addRecipe(Recipe recipe) {
-        recipes.add(recipe);
-        saveRecipeToDatabase(recipe);
+        RecipeWriteBehind queue;
+        writeLock.lock();
+        try {
+            if (recipes.containsKey(recipe.getName())) {
+                System.err.println("❌ Recipe already exists: " + recipe.getName());
+                return;
+            }
+            store(recipe);
+            // Queued under the lock, so refresh() never sees the change in memory but not in the queue
+            queue = writeBehind;
+            if (queue != null) {
+                queue.insert(recipe);
+            }
+        } finally {
+            writeLock.unlock();
+        }
 
-        if (!categories.contains(recipe.getCategory())) {
-            categories.add(recipe.getCategory());
+        if (queue == null) {
+            saveRecipeToDatabase(recipe);
         }
     }
 
     public void removeRecipe(Recipe recipe) {
-        recipes.remove(recipe);
-        deleteRecipeFromDatabase(recipe.getName());
+        RecipeWriteBehind queue;
+        writeLock.lock();
+        try {
+            if (recipes.get(recipe.getName()) == recipe) {
+                discard(recipe);
+            }
+            queue = writeBehind;
+            if (queue != null) {
+                queue.delete(recipe);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (queue == null) {
+            deleteRecipeFromDatabase(recipe.getName());
+        }
+    }
+
+    /**
+     * Switches mutations to write-behind: they are queued, coalesced per recipe and written
+     * as JDBC batches on a background thread every {@code flushIntervalMs} or once
+     * {@code batchSize} recipes are pending. Call {@link #flush()} or {@link #close()} to
+     * wait for them and to see any write failure.
+     */
+    public synchronized void enableWriteBehind(int batchSize, long flushIntervalMs) {
+        if (writeBehind == null) {
+            writeBehind = new RecipeWriteBehind(batchSize, flushIntervalMs, this::assignIds);
+        }
+    }
+
+    // Write-behind thread: ids of inserted recipes, so tombstones and changed rows can find them
+    private void assignIds(List<Recipe> inserted, int[] ids) {
+        writeLock.lock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == 0) continue;
+                Recipe recipe = inserted.get(i);
+                recipe.setId(ids[i]);
+                if (recipes.get(recipe.getName()) == recipe) {
+                    recipesById.put(ids[i], recipe);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
+    // Waits for queued writes; no-op in synchronous mode
+    public void flush() throws SQLException {
+        RecipeWriteBehind queue = writeBehind;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    // Flushes and stops the write-behind thread, returning to synchronous writes
+    public void close() throws SQLException {
+        RecipeWriteBehind closing;
+        synchronized (this) {
+            closing = writeBehind;
+            writeBehind = null;
+        }
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    /**
+     * Unmodifiable snapshot of all recipes in insertion order. The same instance is returned
+     * until the repository changes, so repeated reads neither copy, allocate nor lock.
+     */
     public List<Recipe> getAllRecipes() {
-        return new ArrayList<>(recipes);
+        List<Recipe> current = snapshot;
+        if (current != null) return current;
+
+        readLock.lock();
+        try {
+            // Writers are excluded here, so whatever we publish matches the current state
+            current = snapshot;
+            if (current == null) {
+                current = Collections.unmodifiableList(Arrays.asList(recipes.values().toArray(new Recipe[0])));
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            readLock.unlock();
+        }
     }
 
+    // O(1), lock-free lookup by the UNIQUE recipe name; null when there is no such recipe
+    public Recipe findByName(String name) {
+        return recipesByName.get(name);
+    }
+
+    // Matches name, ingredients, category or tags by substring, resolved through the inverted index.
+    // The list is unmodifiable and may be shared with earlier and later calls (query cache).
     public List<Recipe> searchRecipes(String query) {
-        List<Recipe> result = new ArrayList<>();
+        long start = System.nanoTime();
         String lowerQuery = query.toLowerCase();
-        for (Recipe r : recipes) {
-            if (r.getName().toLowerCase().contains(lowerQuery) ||
-                    r.getIngredients().toLowerCase().contains(lowerQuery) ||
-                    r.getCategory().toLowerCase().contains(lowerQuery)) {
-                result.add(r);
+        List<Recipe> cached = queryCache.search(lowerQuery);
+        if (cached != null) {
+            Metrics.SEARCH.record(start);
+            return cached;
+        }
+        readLock.lock();
+        try {
+            List<Recipe> result = searchIndex.search(lowerQuery);
+            BitSet resultOrdinals = new BitSet();
+            for (Recipe recipe : result) {
+                resultOrdinals.set(ordinals.get(recipe));
             }
+            return queryCache.putSearch(lowerQuery, result, resultOrdinals);
+        } finally {
+            readLock.unlock();
+            Metrics.SEARCH.record(start);
+        }
+    }
+
+    /**
+     * Relevance-ranked full-text search over name, ingredients, category, tags, description,
+     * instructions and notes (BM25F with per-field boosts and stemming), best first. The long
+     * text of recipes loaded from the database is searchable once {@link #indexFullText()} ran.
+     */
+    public List<ScoredRecipe> searchRanked(String query, int limit) {
+        long start = System.nanoTime();
+        readLock.lock();
+        try {
+            return rankedIndex.search(query, limit, byOrdinal);
+        } finally {
+            readLock.unlock();
+            Metrics.RANKED_SEARCH.record(start);
+        }
+    }
+
+    /**
+     * Typo-tolerant search over the words of recipe and ingredient names: every query word
+     * must be within {@code maxEdits} edits (fewer for short words) of a word of the recipe.
+     * Fewest total edits first, then insertion order.
+     */
+    public List<Recipe> searchFuzzy(String query, int maxEdits, int limit) {
+        long start = System.nanoTime();
+        readLock.lock();
+        try {
+            return fuzzyIndex.search(query, maxEdits, limit, byOrdinal);
+        } finally {
+            readLock.unlock();
+            Metrics.FUZZY_SEARCH.record(start);
+        }
+    }
+
+    /**
+     * Feeds the description, instructions and notes of summary-loaded recipes into the ranked
+     * index. The text is streamed from the database and not kept in memory afterwards. Only
+     * recipes not indexed with their text yet are read; {@link #refresh()} calls it for the
+     * rows it changed.
+     */
+    public void indexFullText() {
+        List<Recipe> pending;
+        readLock.lock();
+        try {
+            if (!rankedIndex.hasPendingText()) return;
+            pending = rankedIndex.pendingText(byOrdinal);
+        } finally {
+            readLock.unlock();
+        }
+
+        Map<Integer, Recipe> byId = new HashMap<>();
+        for (Recipe recipe : pending) {
+            if (recipe.getId() > 0) byId.put(recipe.getId(), recipe);
+        }
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (byId.size() > TEXT_SCAN_THRESHOLD) {
+                try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    DatabaseManager.streamResults(stmt);
+                    try (ResultSet rs = stmt.executeQuery(TEXT_QUERY)) {
+                        indexText(rs, byId);
+                    }
+                }
+            } else {
+                List<Integer> ids = new ArrayList<>(byId.keySet());
+                for (int from = 0; from < ids.size(); from += TEXT_BATCH_SIZE) {
+                    List<Integer> chunk = ids.subList(from, Math.min(from + TEXT_BATCH_SIZE, ids.size()));
+                    StringBuilder sql = new StringBuilder(TEXT_QUERY).append(" WHERE id IN (");
+                    for (int i = 0; i < chunk.size(); i++) {
+                        sql.append(i == 0 ? "?" : ", ?");
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(sql.append(')').toString())) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setInt(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            indexText(rs, byId);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error indexing recipe text from DB: " + e.getMessage());
+            return;
+        }
+
+        // Rows the database no longer has keep only their summary fields in the index
+        writeLock.lock();
+        try {
+            for (Recipe recipe : pending) {
+                Integer ordinal = ordinals.get(recipe);
+                if (ordinal != null && rankedIndex.isTextPending(ordinal)) {
+                    rankedIndex.putText(ordinal, recipe, null);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Applies streamed text rows to the ranked index, taking the write lock once per batch
+    private void indexText(ResultSet rs, Map<Integer, Recipe> byId) throws SQLException {
+        List<Recipe> recipes = new ArrayList<>(TEXT_BATCH_SIZE);
+        List<String[]> texts = new ArrayList<>(TEXT_BATCH_SIZE);
+        boolean more = true;
+        while (more) {
+            more = rs.next();
+            if (more) {
+                Recipe recipe = byId.get(rs.getInt("id"));
+                if (recipe == null) continue;
+                recipes.add(recipe);
+                texts.add(new String[]{rs.getString("description"), rs.getString("instructions"), rs.getString("notes")});
+                if (recipes.size() < TEXT_BATCH_SIZE) continue;
+            }
+            writeLock.lock();
+            try {
+                for (int i = 0; i < recipes.size(); i++) {
+                    Integer ordinal = ordinals.get(recipes.get(i));
+                    // Skipped if removed, or re-indexed with its own text since the batch was read
+                    if (ordinal != null && rankedIndex.isTextPending(ordinal)) {
+                        rankedIndex.putText(ordinal, recipes.get(i), texts.get(i));
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            recipes.clear();
+            texts.clear();
+        }
+    }
+
+    // Autocomplete: top-ranked recipe names and ingredient names with a word starting with prefix
+    public List<String> suggest(String prefix, int limit) {
+        long start = System.nanoTime();
+        readLock.lock();
+        try {
+            return suggestionEngine.suggest(prefix, limit);
+        } finally {
+            readLock.unlock();
+            Metrics.SUGGEST.record(start);
         }
-        return result;
     }
 
+    // Case-insensitive category match, answered from the category bitmap; unmodifiable like searchRecipes
     public List<Recipe> getRecipesByCategory(String category) {
-        List<Recipe> result = new ArrayList<>();
-        for (Recipe r : recipes) {
-            if (r.getCategory().equalsIgnoreCase(category)) {
-                result.add(r);
+        if (category == null) return Collections.emptyList();
+        long start = System.nanoTime();
+        List<Recipe> cached = queryCache.category(category);
+        if (cached != null) {
+            Metrics.CATEGORY.record(start);
+            return cached;
+        }
+        readLock.lock();
+        try {
+            BitSet matches = facetIndex.category(category);
+            return queryCache.putCategory(category, toRecipes(matches), matches);
+        } finally {
+            readLock.unlock();
+            Metrics.CATEGORY.record(start);
+        }
+    }
+
+    /**
+     * Recipes matching every selection of the query (categories, difficulties, favorite flag,
+     * tags, text and nutrition ranges), in insertion order.
+     */
+    public List<Recipe> filterRecipes(FacetQuery query) {
+        long start = System.nanoTime();
+        readLock.lock();
+        try {
+            return toRecipes(facetIndex.matching(query, constraintBase(query)));
+        } finally {
+            readLock.unlock();
+            Metrics.FILTER.record(start);
+        }
+    }
+
+    // Per-value counts of each facet under the query, for facet lists in the UI
+    public FacetCounts facetCounts(FacetQuery query) {
+        readLock.lock();
+        try {
+            return facetIndex.counts(query, constraintBase(query));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Caller holds the read lock. Ordinals passing the query's text and nutrition parts; null when it has none
+    private BitSet constraintBase(FacetQuery query) {
+        BitSet base = null;
+        if (query.text != null) {
+            base = new BitSet();
+            for (Recipe recipe : searchIndex.search(query.text)) {
+                Integer ordinal = ordinals.get(recipe);
+                if (ordinal != null) {
+                    base.set(ordinal);
+                }
+            }
+        }
+        if (query.nutrition != null) {
+            BitSet inRange = BitSet.valueOf(nutritionStore.filter(query.nutrition));
+            if (base == null) {
+                base = inRange;
+            } else {
+                base.and(inRange);
             }
         }
+        return base;
+    }
+
+    private List<Recipe> toRecipes(BitSet matches) {
+        List<Recipe> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(byOrdinal[i]);
+        }
         return result;
     }
 
+    /**
+     * Recipes whose numeric attributes fall inside every range of the filter, in insertion
+     * order. Evaluated over the columnar {@link NutritionStore}, in parallel for large collections.
+     */
+    public List<Recipe> filterByNutrition(NutritionFilter filter) {
+        readLock.lock();
+        try {
+            return toRecipes(BitSet.valueOf(nutritionStore.filter(filter)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Count, min, max, average and an equal-width histogram of one nutrient over the filtered recipes
+    public NutritionStats nutritionStats(Nutrient nutrient, NutritionFilter filter, int histogramBuckets) {
+        readLock.lock();
+        try {
+            return nutritionStore.aggregate(nutrient, nutritionStore.filter(filter), histogramBuckets);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * "Cook with what I have": recipes ranked by the share of their ingredients covered by
+     * the pantry entries (free text such as "3 eggs" or "olive oil"), best first. Recipes
+     * missing more than {@code maxMissing} ingredients are left out; pass -1 for no limit.
+     */
+    public List<PantryMatch> matchPantry(Collection<String> pantry, int maxMissing, int limit) {
+        long start = System.nanoTime();
+        readLock.lock();
+        try {
+            return pantryIndex.match(pantry, maxMissing, limit, byOrdinal);
+        } finally {
+            readLock.unlock();
+            Metrics.PANTRY.record(start);
+        }
+    }
+
+    /**
+     * Pushdown mode: one page of the recipes matching the query, read straight from MySQL in id
+     * order. Pass 0 as {@code afterId} for the first page and the previous page's
+     * {@link RecipePage#getNextKey()} after that. Text matches name and ingredient words by
+     * prefix through the FULLTEXT index rather than by substring (see {@link PushdownQuery}).
+     * The recipes are not added to the in-memory indexes; their long text loads on first
+     * access like that of loaded recipes.
+     */
+    public RecipePage queryDatabase(FacetQuery query, int afterId, int pageSize) {
+        long start = System.nanoTime();
+        List<Recipe> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            PushdownQuery pushdown = PushdownQuery.of(conn, referenceIds, query);
+            if (!pushdown.isUnsatisfiable()) {
+                try (PreparedStatement stmt = pushdown.page(conn, SUMMARY_QUERY, afterId, pageSize + 1);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        page.add(readSummary(rs));
+                    }
+                }
+            }
+            // The extra row only tells whether another page follows
+            boolean more = page.size() > pageSize;
+            if (more) {
+                page.remove(pageSize);
+            }
+            RecipeTagStore.loadFor(conn, page);
+
+            Metrics.QUERY_DATABASE.addRows(page.size());
+            Metrics.QUERY_DATABASE.record(start);
+            int nextKey = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+            return new RecipePage(page, nextKey, more);
+        } catch (SQLException e) {
+            System.err.println("❌ Error querying recipes in DB: " + e.getMessage());
+            Metrics.QUERY_DATABASE.recordFailure(start);
+            return new RecipePage(new ArrayList<>(), afterId, false);
+        }
+    }
+
+    // Pushdown mode: a recipe by its UNIQUE name straight from MySQL, null when there is none
+    public Recipe findInDatabase(String name) {
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SUMMARY_QUERY + " WHERE r.name = ?")) {
+            stmt.setString(1, name);
+            Recipe recipe = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    recipe = readSummary(rs);
+                }
+            }
+            if (recipe != null) {
+                RecipeTagStore.loadFor(conn, List.of(recipe));
+            }
+            Metrics.FIND_IN_DATABASE.record(start);
+            return recipe;
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding recipe in DB: " + e.getMessage());
+            Metrics.FIND_IN_DATABASE.recordFailure(start);
+            return null;
+        }
+    }
+
+    // Pushdown mode autocomplete: names starting with prefix, alphabetically, seeking the name index
+    public List<String> suggestFromDatabase(String prefix, int limit) {
+        long start = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT name FROM recipes WHERE name LIKE ? ORDER BY name LIMIT ?")) {
+            stmt.setString(1, pattern);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+            Metrics.SUGGEST_FROM_DATABASE.record(start);
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading suggestions from DB: " + e.getMessage());
+            Metrics.SUGGEST_FROM_DATABASE.recordFailure(start);
+        }
+        return names;
+    }
+
+    // Hit, miss, eviction and invalidation counts of the searchRecipes/getRecipesByCategory cache
+    public QueryCacheStats getQueryCacheStats() {
+        return queryCache.stats();
+    }
+
     public List<String> getAllCategories() {
-        return new ArrayList<>(categories);
+        readLock.lock();
+        try {
+            return new ArrayList<>(categories);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public void addCategory(String category) {
-        if (!categories.contains(category)) {
-            categories.add(category);
+        writeLock.lock();
+        try {
+            trackCategory(category);
+        } finally {
+            writeLock.unlock();
         }
     }
 
+    // Full (re)load of every recipe; refresh() is the cheap incremental alternative
+    public void load() {
+        loadFromDatabase();
+    }
+
     // ✅ Stub for legacy call in RecipeApp
     public void loadFromFile(String ignored) {
         loadFromDatabase();
     }
 
     private void loadFromDatabase() {
-        recipes.clear();
-        categories.clear();
+        syncLock.lock();
+        long start = System.nanoTime();
+        try {
+            List<Recipe> loaded = new ArrayList<>();
+            Timestamp watermark;
 
-        String query = "SELECT r.*, c.name AS category_name, d.label AS difficulty_label " +
-                "FROM recipes r " +
-                "JOIN categories c ON r.category_id = c.id " +
-                "JOIN difficulty_levels d ON r.difficulty_id = d.id";
+            try (Connection conn = DatabaseManager.getConnection();
+                 Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Taken before reading so rows changed during the load are picked up by refresh()
+                watermark = databaseTime(conn);
 
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
-            while (rs.next()) {
-                Recipe recipe = new Recipe(
-                        rs.getString("name"),
-                        rs.getString("description"),
-                        rs.getString("ingredients"),
-                        rs.getString("instructions"),
-                        rs.getString("category_name"),
-                        rs.getInt("calories"),
-                        rs.getInt("servings"),
-                        rs.getString("serving_unit"),
-                        rs.getInt("prep_time"),
-                        rs.getInt("cook_time"),
-                        rs.getString("difficulty_label"),
-                        rs.getBoolean("is_favorite"),
-                        rs.getString("notes"),
-                        rs.getDouble("protein"),
-                        rs.getDouble("carbs"),
-                        rs.getDouble("fat")
-                );
-                recipe.setRating(rs.getDouble("rating"));
-                recipes.add(recipe);
+                // Rows are streamed instead of buffering the whole result
+                DatabaseManager.streamResults(stmt);
+
+                try (ResultSet rs = stmt.executeQuery(SUMMARY_QUERY)) {
+                    while (rs.next()) {
+                        loaded.add(readSummary(rs));
+                    }
+                }
+
+                Map<Integer, Recipe> loadedById = new HashMap<>();
+                for (Recipe recipe : loaded) {
+                    loadedById.put(recipe.getId(), recipe);
+                }
+                RecipeTagStore.loadAll(conn, loadedById);
+            } catch (SQLException e) {
+                System.err.println("❌ Error loading recipes from DB: " + e.getMessage());
+                Metrics.LOAD.recordFailure(start);
+                return;
+            }
+
+            replaceAll(loaded);
+            syncWatermark = watermark;
+            Metrics.LOAD.addRows(loaded.size());
+            Metrics.LOAD.record(start);
+        } finally {
+            syncLock.unlock();
+        }
+    }
 
-                if (!categories.contains(recipe.getCategory())) {
-                    categories.add(recipe.getCategory());
+    /**
+     * Pulls only the rows changed or deleted since the last load or refresh and applies them
+     * to the in-memory list and indexes. Falls back to a full load when nothing was synced yet.
+     * The ranked index then gets the new description, instructions and notes of changed rows.
+     * Rows of recipes changed locally but not written yet (queued for write-behind, or edited
+     * through setters and not submitted) are skipped: the local change overwrites them.
+     */
+    public void refresh() {
+        if (pullChanges()) {
+            // Changed rows come without their text; index it once the write lock is released
+            indexFullText();
+        }
+    }
+
+    // False when the database could not be read and nothing was applied
+    private boolean pullChanges() {
+        syncLock.lock();
+        try {
+            if (syncWatermark == null) {
+                loadFromDatabase();
+                return true;
+            }
+            // Re-read a short overlap so rows committed late by slow transactions are not missed;
+            // applying a row twice is harmless.
+            long start = System.nanoTime();
+            Timestamp since = new Timestamp(syncWatermark.getTime() - SYNC_OVERLAP_MS);
+            List<Recipe> changed = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+            Timestamp watermark;
+            // Local changes not in the database yet win over the rows read below
+            RecipeWriteBehind queue = writeBehind;
+            if (queue != null) {
+                queue.trackWrites();
+            }
+
+            try (Connection conn = DatabaseManager.getConnection()) {
+                watermark = databaseTime(conn);
+
+                try (PreparedStatement stmt = conn.prepareStatement(SUMMARY_QUERY + " WHERE r.updated_at >= ?")) {
+                    stmt.setTimestamp(1, since);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            changed.add(readSummary(rs));
+                        }
+                    }
+                }
+                RecipeTagStore.loadFor(conn, changed);
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT recipe_id FROM recipe_tombstones WHERE deleted_at >= ?")) {
+                    stmt.setTimestamp(1, since);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            deleted.add(rs.getInt("recipe_id"));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("❌ Error refreshing recipes from DB: " + e.getMessage());
+                Metrics.REFRESH.recordFailure(start);
+                if (queue != null) {
+                    queue.unsettledNames();
+                }
+                return false;
+            }
+
+            writeLock.lock();
+            try {
+                Set<String> unsettled = unsettledNames(queue);
+                // Deletions first: a recipe deleted and re-added under the same name comes back
+                // with a new id, and its tombstone must not match the re-added row
+                for (int id : deleted) {
+                    Recipe gone = recipesById.get(id);
+                    if (gone != null && recipes.get(gone.getName()) == gone) {
+                        discard(gone);
+                    }
+                }
+                for (Recipe row : changed) {
+                    // The local state is newer and on its way to the database (or about to be,
+                    // for setters whose update was not submitted yet); copying the row over the
+                    // recipe now would make write-behind write the old values back
+                    Recipe local = recipesById.get(row.getId());
+                    if (local == null) local = recipes.get(row.getName());
+                    if (unsettled.contains(row.getName())
+                            || (local != null && (unsettled.contains(local.getName()) || local.hasUnsavedEdits()))) {
+                        continue;
+                    }
+                    applyChangedRow(row);
                 }
+            } finally {
+                writeLock.unlock();
             }
+            syncWatermark = watermark;
+            Metrics.REFRESH.addRows(changed.size() + deleted.size());
+            Metrics.REFRESH.record(start);
+            return true;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Default snapshot location: -Drecipemanager.snapshot=<file>, else ~/.recipemanager/recipes.snapshot
+    public static Path defaultSnapshotPath() {
+        String configured = System.getProperty("recipemanager.snapshot");
+        return configured != null
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.home"), ".recipemanager", "recipes.snapshot");
+    }
+
+    /**
+     * Fast cold start: fills the repository from the memory-mapped snapshot file if there is
+     * a valid one, otherwise falls back to a full database load. Returns true when the
+     * snapshot was used; follow up with {@link #reconcileSnapshot(Path)} in the background.
+     */
+    public boolean openSnapshot(Path file) {
+        syncLock.lock();
+        try {
+            RecipeSnapshot snapshotFile;
+            try {
+                snapshotFile = RecipeSnapshot.read(file, textCache);
+            } catch (IOException e) {
+                System.err.println("❌ Error reading recipe snapshot: " + e.getMessage());
+                snapshotFile = null;
+            }
+            if (snapshotFile == null) {
+                loadFromDatabase();
+                return false;
+            }
+
+            replaceAll(snapshotFile.recipes);
+            syncWatermark = snapshotFile.watermark;
+            snapshotFingerprint = snapshotFile.fingerprint;
+            return true;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Checks the loaded snapshot against the database's row count and latest
+     * {@code updated_at}. When they differ (or no snapshot was loaded) the changed summaries
+     * are pulled in and the snapshot file is rewritten. Call {@link #indexFullText()} afterwards
+     * to make the long text of the recipes searchable.
+     */
+    public void reconcileSnapshot(Path file) {
+        RecipeSnapshot.Fingerprint loaded;
+        syncLock.lock();
+        try {
+            loaded = snapshotFingerprint;
+            snapshotFingerprint = null;
+        } finally {
+            syncLock.unlock();
+        }
+        try {
+            if (loaded != null && loaded.matches(databaseFingerprint())) {
+                return;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error checking recipe snapshot against DB: " + e.getMessage());
+            return;
+        }
+        saveSnapshot(file);
+    }
 
+    // Brings the summaries up to date with the database and writes them to the snapshot file
+    public void saveSnapshot(Path file) {
+        RecipeSnapshot.Fingerprint fingerprint;
+        Timestamp watermark;
+        List<Recipe> rows = new ArrayList<>();
+        syncLock.lock();
+        try {
+            // Fingerprint first: anything committed after it makes the next start see a mismatch
+            fingerprint = databaseFingerprint();
+            // Summaries only: the ranked text of changed rows is left to indexFullText(), which
+            // streams the whole text table after a snapshot start and must not delay the write
+            if (!pullChanges()) return;
+            watermark = syncWatermark;
+            for (Recipe recipe : getAllRecipes()) {
+                // Recipes without an id are not in the database yet
+                if (recipe.getId() > 0) rows.add(recipe);
+            }
         } catch (SQLException e) {
-            System.err.println("❌ Error loading recipes from DB: " + e.getMessage());
+            System.err.println("❌ Error checking recipe snapshot against DB: " + e.getMessage());
+            return;
+        } finally {
+            syncLock.unlock();
+        }
+        if (watermark == null) return;
+
+        try {
+            RecipeSnapshot.write(file, fingerprint, watermark, rows);
+        } catch (IOException e) {
+            System.err.println("❌ Error writing recipe snapshot: " + e.getMessage());
+        }
+    }
+
+    private static RecipeSnapshot.Fingerprint databaseFingerprint() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(updated_at) FROM recipes")) {
+            rs.next();
+            Timestamp latest = rs.getTimestamp(2);
+            return new RecipeSnapshot.Fingerprint(rs.getLong(1), latest == null ? 0 : latest.getTime());
+        }
+    }
+
+    // Swaps the whole in-memory state for these recipes without touching the database
+    void replaceAll(List<Recipe> loaded) {
+        writeLock.lock();
+        try {
+            clearAll();
+            for (Recipe recipe : loaded) {
+                store(recipe);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Caller holds the write lock, so nothing new is queued meanwhile. Names whose database
+    // row may be older than memory: queued, being written, or written since the pull started
+    private Set<String> unsettledNames(RecipeWriteBehind tracked) {
+        Set<String> names = tracked != null ? tracked.unsettledNames() : new HashSet<>();
+        RecipeWriteBehind current = writeBehind;
+        if (current != null && current != tracked) {
+            names.addAll(current.unsettledNames());
+        }
+        return names;
+    }
+
+    // Caller holds the write lock
+    private void applyChangedRow(Recipe row) {
+        Recipe existing = recipesById.get(row.getId());
+        if (existing == null) {
+            // Added here but its generated id is not known yet (e.g. still in write-behind)
+            existing = recipes.get(row.getName());
+        }
+        if (existing != null && !existing.getName().equals(row.getName())) {
+            // Renamed: the name keys the maps and indexes, so replace the recipe instead
+            discard(existing);
+            existing = null;
+        }
+        if (existing == null) {
+            // Names are unique, so a local recipe still holding the new name is stale
+            Recipe clash = recipes.get(row.getName());
+            if (clash != null) {
+                discard(clash);
+            }
+            store(row);
+        } else {
+            recipesById.remove(existing.getId(), existing);
+            existing.copySummaryFrom(row);
+            recipesById.put(existing.getId(), existing);
+            reindex(existing);
+            trackCategory(existing.getCategory());
+        }
+    }
+
+    // ---- In-memory state; every method below requires the write lock ----
+
+    private void store(Recipe recipe) {
+        recipes.put(recipe.getName(), recipe);
+        recipesByName.put(recipe.getName(), recipe);
+        if (recipe.getId() > 0) {
+            recipesById.put(recipe.getId(), recipe);
+        }
+        searchIndex.add(recipe);
+        suggestionEngine.add(recipe);
+        int ordinal = nextOrdinal++;
+        if (ordinal == byOrdinal.length) {
+            byOrdinal = Arrays.copyOf(byOrdinal, ordinal * 2);
         }
+        byOrdinal[ordinal] = recipe;
+        ordinals.put(recipe, ordinal);
+        nutritionStore.put(ordinal, recipe);
+        facetIndex.put(ordinal, recipe);
+        pantryIndex.put(ordinal, recipe);
+        rankedIndex.put(ordinal, recipe);
+        fuzzyIndex.put(ordinal, recipe);
+        queryCache.invalidate(recipe, ordinal);
+        trackCategory(recipe.getCategory());
+        snapshot = null;
+    }
+
+    private void discard(Recipe recipe) {
+        recipes.remove(recipe.getName());
+        recipesByName.remove(recipe.getName());
+        recipesById.remove(recipe.getId(), recipe);
+        searchIndex.remove(recipe);
+        suggestionEngine.remove(recipe);
+        Integer ordinal = ordinals.remove(recipe);
+        if (ordinal != null) {
+            queryCache.invalidate(recipe, ordinal);
+            byOrdinal[ordinal] = null;
+            nutritionStore.remove(ordinal);
+            facetIndex.remove(ordinal);
+            pantryIndex.remove(ordinal);
+            rankedIndex.remove(ordinal);
+            fuzzyIndex.remove(ordinal);
+        }
+        snapshot = null;
+    }
+
+    private void reindex(Recipe recipe) {
+        searchIndex.update(recipe);
+        suggestionEngine.update(recipe);
+        Integer ordinal = ordinals.get(recipe);
+        if (ordinal != null) {
+            nutritionStore.put(ordinal, recipe);
+            facetIndex.put(ordinal, recipe);
+            pantryIndex.put(ordinal, recipe);
+            rankedIndex.put(ordinal, recipe);
+            fuzzyIndex.put(ordinal, recipe);
+            queryCache.invalidate(recipe, ordinal);
+        }
+    }
+
+    private void clearAll() {
+        recipes.clear();
+        recipesByName.clear();
+        recipesById.clear();
+        categories.clear();
+        searchIndex.clear();
+        suggestionEngine.clear();
+        ordinals.clear();
+        Arrays.fill(byOrdinal, 0, nextOrdinal, null);
+        nextOrdinal = 0;
+        nutritionStore.clear();
+        facetIndex.clear();
+        pantryIndex.clear();
+        rankedIndex.clear();
+        fuzzyIndex.clear();
+        queryCache.clear();
+        textCache.clear();
+        snapshot = null;
+    }
+
+    private void trackCategory(String category) {
+        categories.add(category);
+    }
+
+    private Recipe readSummary(ResultSet rs) throws SQLException {
+        Recipe recipe = new Recipe(
+                rs.getString("name"),
+                null,
+                rs.getString("ingredients"),
+                null,
+                rs.getString("category_name"),
+                rs.getInt("calories"),
+                rs.getInt("servings"),
+                rs.getString("serving_unit"),
+                rs.getInt("prep_time"),
+                rs.getInt("cook_time"),
+                rs.getString("difficulty_label"),
+                rs.getBoolean("is_favorite"),
+                null,
+                rs.getDouble("protein"),
+                rs.getDouble("carbs"),
+                rs.getDouble("fat")
+        );
+        recipe.setRating(rs.getDouble("rating"));
+        recipe.setId(rs.getInt("id"));
+        recipe.attachTextLoader(textCache);
+        return recipe;
+    }
+
+    private static Timestamp databaseTime(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP(3)")) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * Fetches description, instructions and notes for the given recipes in batched queries,
+     * e.g. before iterating a result page. Single recipes load on their own when first read.
+     */
+    public void loadDetails(Collection<Recipe> recipes) {
+        textCache.load(recipes);
     }
 
     private void saveRecipeToDatabase(Recipe recipe) {
@@ -122,8 +1058,9 @@ public class RecipeRepository {
                 "(SELECT id FROM categories WHERE name = ?), ?, ?, ?, ?, ?, " +
                 "(SELECT id FROM difficulty_levels WHERE label = ?), ?, ?, ?, ?, ?, ?)";
 
+        long start = System.nanoTime();
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(insertSQL)) {
+             PreparedStatement stmt = conn.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, recipe.getName());
             stmt.setString(2, recipe.getDescription());
@@ -144,34 +1081,70 @@ public class RecipeRepository {
             stmt.setDouble(17, recipe.getRating());
 
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    recipe.setId(keys.getInt(1));
+                    if (recipesByName.get(recipe.getName()) == recipe) {
+                        recipesById.put(recipe.getId(), recipe);
+                    }
+                }
+            }
+            if (recipe.tagIds().length > 0) {
+                RecipeTagStore.write(conn, List.of(recipe), List.of());
+            }
+            Metrics.SAVE.record(start);
 
         } catch (SQLException e) {
             System.err.println("❌ Error saving recipe to DB: " + e.getMessage());
+            Metrics.SAVE.recordFailure(start);
         }
     }
 
     private void deleteRecipeFromDatabase(String name) {
         String deleteSQL = "DELETE FROM recipes WHERE name = ?";
 
+        long start = System.nanoTime();
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(deleteSQL)) {
             stmt.setString(1, name);
             stmt.executeUpdate();
+            Metrics.DELETE.record(start);
         } catch (SQLException e) {
             System.err.println("❌ Error deleting recipe from DB: " + e.getMessage());
+            Metrics.DELETE.recordFailure(start);
         }
     }
 
     // ✅ NEW METHOD: Update an existing recipe by name
     public void updateRecipeInDatabase(Recipe recipe) {
+        RecipeWriteBehind queue;
+        writeLock.lock();
+        try {
+            if (recipes.get(recipe.getName()) == recipe) {
+                reindex(recipe);
+                trackCategory(recipe.getCategory());
+            }
+            queue = writeBehind;
+            if (queue != null) {
+                queue.update(recipe);
+                recipe.markSaved(recipe.editCount());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (queue != null) return;
+
         String updateSQL = "UPDATE recipes SET " +
                 "description = ?, ingredients = ?, instructions = ?, " +
                 "category_id = (SELECT id FROM categories WHERE name = ?), " +
                 "calories = ?, servings = ?, serving_unit = ?, prep_time = ?, cook_time = ?, " +
                 "difficulty_id = (SELECT id FROM difficulty_levels WHERE label = ?), " +
-                "is_favorite = ?, notes = ?, protein = ?, carbs = ?, fat = ?, rating = ? " +
+                "is_favorite = ?, notes = ?, protein = ?, carbs = ?, fat = ?, rating = ?, " +
+                "updated_at = CURRENT_TIMESTAMP(3) " +
                 "WHERE name = ?";
 
+        long start = System.nanoTime();
+        int edits = recipe.editCount();
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(updateSQL)) {
 
@@ -194,9 +1167,19 @@ public class RecipeRepository {
             stmt.setString(17, recipe.getName());
 
             stmt.executeUpdate();
+            RecipeTagStore.write(conn, List.of(), List.of(recipe));
+            Metrics.UPDATE.record(start);
+
+            writeLock.lock();
+            try {
+                recipe.markSaved(edits);
+            } finally {
+                writeLock.unlock();
+            }
 
         } catch (SQLException e) {
             System.err.println("❌ Error updating recipe in DB: " + e.getMessage());
+            Metrics.UPDATE.recordFailure(start);
         }
     }
 }
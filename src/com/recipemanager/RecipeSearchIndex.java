@@ -0,0 +1,308 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory substring index behind {@link RecipeRepository#searchRecipes(String)}.
+ *
+ * Every recipe gets a posting id in insertion order. Name words, ingredient words, the
+ * category and the tags are tokenized into lowercase terms, and every position of a term
+ * contributes the gram of the (up to) three characters starting there, padded past the end
+ * of the term. A query token of three or more characters only occurs in recipes holding all
+ * of its trigrams; a shorter token in recipes holding a gram that starts with it. Gram keys
+ * are bounded by the alphabet, not by the vocabulary. The candidates left after AND-ing the
+ * query tokens are checked against the recipe's current fields, so results are identical to
+ * a substring scan.
+ *
+ * Removed ids stay empty until they outnumber the live ones; the index is then renumbered,
+ * keeping the order.
+ */
+class RecipeSearchIndex {
+
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_COMPACT = 64;
+
+    // Packed gram to gram id; sorted so that the grams starting with a short token are a range
+    private final TreeMap<Long, Integer> gramIds = new TreeMap<>();
+    // By gram id: sorted posting ids valid up to postingSizes[gram]
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+
+    private final Map<Recipe, Integer> ids = new IdentityHashMap<>();
+    // By posting id: the recipe and its distinct sorted gram ids, null once removed
+    private Recipe[] byId = new Recipe[1024];
+    private int[][] gramsOf = new int[1024][];
+    private int size;
+    private int removed;
+
+    void clear() {
+        gramIds.clear();
+        Arrays.fill(postings, null);
+        Arrays.fill(postingSizes, 0);
+        ids.clear();
+        Arrays.fill(byId, 0, size, null);
+        Arrays.fill(gramsOf, 0, size, null);
+        size = 0;
+        removed = 0;
+    }
+
+    void add(Recipe recipe) {
+        if (ids.containsKey(recipe)) {
+            update(recipe);
+            return;
+        }
+        int id = size++;
+        if (id == byId.length) {
+            byId = Arrays.copyOf(byId, id * 2);
+            gramsOf = Arrays.copyOf(gramsOf, id * 2);
+        }
+        byId[id] = recipe;
+        ids.put(recipe, id);
+        post(id, gramsOf(recipe));
+    }
+
+    void remove(Recipe recipe) {
+        Integer id = ids.remove(recipe);
+        if (id == null) return;
+        unpost(id);
+        byId[id] = null;
+        removed++;
+        if (removed > MIN_COMPACT && removed > size - removed) {
+            compact();
+        }
+    }
+
+    // Re-tokenizes an indexed recipe whose fields changed, keeping its original position.
+    void update(Recipe recipe) {
+        Integer id = ids.get(recipe);
+        if (id == null) return;
+        unpost(id);
+        post(id, gramsOf(recipe));
+    }
+
+    List<Recipe> search(String query) {
+        String lowerQuery = query.toLowerCase();
+        List<Recipe> result = new ArrayList<>();
+
+        String[] queryTokens = tokenize(lowerQuery);
+        if (queryTokens.length == 0) {
+            // Nothing to look up (empty or punctuation-only query): verify every recipe.
+            for (int id = 0; id < size; id++) {
+                if (byId[id] != null && matches(byId[id], lowerQuery)) {
+                    result.add(byId[id]);
+                }
+            }
+            return result;
+        }
+
+        BitSet candidates = null;
+        for (String token : queryTokens) {
+            BitSet tokenHits = token.length() >= 3 ? holdingTrigrams(token) : holdingPrefix(token);
+            if (candidates == null) {
+                candidates = tokenHits;
+            } else {
+                candidates.and(tokenHits);
+            }
+            if (candidates.isEmpty()) return result;
+        }
+
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Recipe recipe = byId[id];
+            if (recipe != null && matches(recipe, lowerQuery)) {
+                result.add(recipe);
+            }
+        }
+        return result;
+    }
+
+    // The result check of search() on the recipe's current fields
+    static boolean matches(Recipe recipe, String lowerQuery) {
+        return lower(recipe.getName()).contains(lowerQuery)
+                || lower(recipe.getIngredients()).contains(lowerQuery)
+                || lower(recipe.getCategory()).contains(lowerQuery)
+                // Tag names are lowercase already; the separator keeps a match inside one tag
+                || String.join("\n", recipe.getTags()).contains(lowerQuery);
+    }
+
+    // The searched fields lowercased once, for checking one recipe against many queries
+    static String[] lowerFields(Recipe recipe) {
+        return new String[]{lower(recipe.getName()), lower(recipe.getIngredients()),
+                lower(recipe.getCategory()), String.join("\n", recipe.getTags())};
+    }
+
+    static boolean matches(String[] lowerFields, String lowerQuery) {
+        for (String field : lowerFields) {
+            if (field.contains(lowerQuery)) return true;
+        }
+        return false;
+    }
+
+    // Ids holding every trigram of the token: a superset of those with a term containing it
+    private BitSet holdingTrigrams(String token) {
+        BitSet hits = null;
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            Integer gram = gramIds.get(pack(token, i));
+            if (gram == null) return new BitSet();
+            BitSet bits = new BitSet();
+            setAll(bits, gram);
+            if (hits == null) {
+                hits = bits;
+            } else {
+                hits.and(bits);
+            }
+            if (hits.isEmpty()) break;
+        }
+        return hits;
+    }
+
+    // Ids with a gram starting with the one- or two-character token, i.e. a term containing it
+    private BitSet holdingPrefix(String token) {
+        long from = pack(token, 0);
+        long to = from | (token.length() == 1 ? 0xFFFFFFFFL : 0xFFFFL);
+        BitSet hits = new BitSet();
+        for (int gram : gramIds.subMap(from, true, to, true).values()) {
+            setAll(hits, gram);
+        }
+        return hits;
+    }
+
+    private void setAll(BitSet bits, int gram) {
+        int[] list = postings[gram];
+        for (int p = 0, n = postingSizes[gram]; p < n; p++) {
+            bits.set(list[p]);
+        }
+    }
+
+    private int[] gramsOf(Recipe recipe) {
+        List<Long> grams = new ArrayList<>();
+        for (String field : lowerFields(recipe)) {
+            addGrams(grams, field);
+        }
+        int[] result = new int[grams.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = gramId(grams.get(i));
+        }
+        return distinctSorted(result);
+    }
+
+    private static void addGrams(List<Long> out, String lowerText) {
+        for (String term : tokenize(lowerText)) {
+            for (int i = 0; i < term.length(); i++) {
+                out.add(pack(term, i));
+            }
+        }
+    }
+
+    // The three characters from i on, packed into a long (16 bits each, 0 past the end)
+    private static long pack(String text, int i) {
+        long packed = 0;
+        for (int k = i; k < i + 3; k++) {
+            packed = packed << 16 | (k < text.length() ? text.charAt(k) : 0);
+        }
+        return packed;
+    }
+
+    // Gram ids are never reclaimed: there are at most as many as distinct three-character runs
+    private int gramId(long gram) {
+        Integer id = gramIds.get(gram);
+        if (id != null) return id;
+        id = gramIds.size();
+        gramIds.put(gram, id);
+        if (id == postings.length) {
+            postings = Arrays.copyOf(postings, id * 2);
+            postingSizes = Arrays.copyOf(postingSizes, id * 2);
+        }
+        return id;
+    }
+
+    private void post(int id, int[] grams) {
+        gramsOf[id] = grams;
+        for (int gram : grams) {
+            int[] list = postings[gram] == null ? EMPTY : postings[gram];
+            int n = postingSizes[gram];
+            // Ids are handed out in increasing order, so this is an append unless updating
+            int at = n == 0 || list[n - 1] < id ? n : -Arrays.binarySearch(list, 0, n, id) - 1;
+            if (at < 0) continue;
+            if (n == list.length) {
+                list = Arrays.copyOf(list, Math.max(4, n * 2));
+            }
+            System.arraycopy(list, at, list, at + 1, n - at);
+            list[at] = id;
+            postings[gram] = list;
+            postingSizes[gram] = n + 1;
+        }
+    }
+
+    private void unpost(int id) {
+        for (int gram : gramsOf[id]) {
+            int[] list = postings[gram];
+            int n = postingSizes[gram];
+            int at = Arrays.binarySearch(list, 0, n, id);
+            if (at < 0) continue;
+            System.arraycopy(list, at + 1, list, at, n - at - 1);
+            postingSizes[gram] = n - 1;
+        }
+        gramsOf[id] = null;
+    }
+
+    // Renumbers the live ids 0..n-1 in their current order; postings stay sorted
+    private void compact() {
+        int[] renumbered = new int[size];
+        int live = 0;
+        for (int id = 0; id < size; id++) {
+            if (byId[id] == null) continue;
+            renumbered[id] = live;
+            byId[live] = byId[id];
+            gramsOf[live] = gramsOf[id];
+            ids.put(byId[live], live);
+            live++;
+        }
+        Arrays.fill(byId, live, size, null);
+        Arrays.fill(gramsOf, live, size, null);
+        for (int gram = 0; gram < gramIds.size(); gram++) {
+            int[] list = postings[gram];
+            for (int p = 0, n = postingSizes[gram]; p < n; p++) {
+                list[p] = renumbered[list[p]];
+            }
+        }
+        size = live;
+        removed = 0;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    private static int[] distinctSorted(int[] values) {
+        Arrays.sort(values);
+        int distinct = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct == values.length ? values : Arrays.copyOf(values, distinct);
+    }
+
+    // Splits already-lowercased text into maximal runs of letters and digits.
+    static String[] tokenize(String lowerText) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lowerText.length(); i++) {
+            boolean wordChar = i < lowerText.length() && Character.isLetterOrDigit(lowerText.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lowerText.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,282 @@
+package com.recipemanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of the repository's summary rows, read back through a memory-mapped
+ * file so a cold start needs no database round trip.
+ *
+ * Layout (big-endian): magic, version, the database fingerprint the file was taken at
+ * (row count and {@code MAX(updated_at)}), the sync watermark, a string table for the
+ * low-cardinality columns (category, difficulty, serving unit, tags), the recipes, and a
+ * CRC32 of everything before it. Description, instructions and notes are not stored; they
+ * stay lazy exactly as after a summary load from the database.
+ */
+final class RecipeSnapshot {
+
+    private static final int MAGIC = 0x524D534E; // "RMSN"
+    private static final int VERSION = 1;
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    // What the database looked like when the snapshot was taken
+    static final class Fingerprint {
+        final long rowCount;
+        final long maxUpdatedAt;
+
+        Fingerprint(long rowCount, long maxUpdatedAt) {
+            this.rowCount = rowCount;
+            this.maxUpdatedAt = maxUpdatedAt;
+        }
+
+        boolean matches(Fingerprint other) {
+            return other != null && rowCount == other.rowCount && maxUpdatedAt == other.maxUpdatedAt;
+        }
+    }
+
+    final Fingerprint fingerprint;
+    final Timestamp watermark;
+    final List<Recipe> recipes;
+
+    private RecipeSnapshot(Fingerprint fingerprint, Timestamp watermark, List<Recipe> recipes) {
+        this.fingerprint = fingerprint;
+        this.watermark = watermark;
+        this.recipes = recipes;
+    }
+
+    /**
+     * Maps and decodes a snapshot; null when the file is missing, from another version or
+     * fails its checksum. Recipes get {@code textLoader} attached for their long text.
+     */
+    static RecipeSnapshot read(Path file, RecipeTextLoader textLoader) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 16 || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit((int) size - Long.BYTES));
+            if (buffer.getLong((int) size - Long.BYTES) != crc.getValue()) return null;
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+
+            Fingerprint fingerprint = new Fingerprint(buffer.getLong(), buffer.getLong());
+            Timestamp watermark = new Timestamp(buffer.getLong());
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = getString(buffer);
+            }
+
+            int count = buffer.getInt();
+            List<Recipe> recipes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = buffer.getInt();
+                String name = getString(buffer);
+                String ingredients = getString(buffer);
+                String category = ref(strings, buffer.getInt());
+                String difficulty = ref(strings, buffer.getInt());
+                String servingUnit = ref(strings, buffer.getInt());
+                int calories = buffer.getInt();
+                int servings = buffer.getInt();
+                int prepTime = buffer.getInt();
+                int cookTime = buffer.getInt();
+                boolean favorite = buffer.get() != 0;
+                double protein = buffer.getDouble();
+                double carbs = buffer.getDouble();
+                double fat = buffer.getDouble();
+                double rating = buffer.getDouble();
+
+                Recipe recipe = new Recipe(name, null, ingredients, null, category, calories, servings,
+                        servingUnit, prepTime, cookTime, difficulty, favorite, null, protein, carbs, fat);
+                recipe.setRating(rating);
+                recipe.setId(id);
+                int tagCount = buffer.getInt();
+                if (tagCount > 0) {
+                    int[] tagIds = new int[tagCount];
+                    for (int t = 0; t < tagCount; t++) {
+                        tagIds[t] = TagDictionary.intern(strings[buffer.getInt()]);
+                    }
+                    Arrays.sort(tagIds);
+                    recipe.setTagIds(tagIds);
+                }
+                recipe.attachTextLoader(textLoader);
+                recipes.add(recipe);
+            }
+            return new RecipeSnapshot(fingerprint, watermark, recipes);
+        } catch (RuntimeException e) {
+            // Truncated or garbled file: BufferUnderflowException and friends
+            return null;
+        }
+    }
+
+    /** Writes atomically: a temporary file in the same directory is moved over the old one. */
+    static void write(Path file, Fingerprint fingerprint, Timestamp watermark, List<Recipe> recipes)
+            throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            intern(strings, recipe.getCategory());
+            intern(strings, recipe.getDifficulty());
+            intern(strings, recipe.getServingUnit());
+            for (String tag : recipe.getTags()) {
+                intern(strings, tag);
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Output out = new Output(channel);
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putLong(fingerprint.rowCount);
+                out.putLong(fingerprint.maxUpdatedAt);
+                out.putLong(watermark.getTime());
+
+                out.putInt(strings.size());
+                for (String value : strings.keySet()) {
+                    out.putString(value);
+                }
+
+                out.putInt(recipes.size());
+                for (Recipe recipe : recipes) {
+                    out.putInt(recipe.getId());
+                    out.putString(recipe.getName());
+                    out.putString(recipe.getIngredients());
+                    out.putInt(ref(strings, recipe.getCategory()));
+                    out.putInt(ref(strings, recipe.getDifficulty()));
+                    out.putInt(ref(strings, recipe.getServingUnit()));
+                    out.putInt(recipe.getCalories());
+                    out.putInt(recipe.getServings());
+                    out.putInt(recipe.getPrepTime());
+                    out.putInt(recipe.getCookTime());
+                    out.putByte(recipe.isFavorite() ? 1 : 0);
+                    out.putDouble(recipe.getProtein());
+                    out.putDouble(recipe.getCarbs());
+                    out.putDouble(recipe.getFat());
+                    out.putDouble(recipe.getRating());
+                    List<String> tags = recipe.getTags();
+                    out.putInt(tags.size());
+                    for (String tag : tags) {
+                        out.putInt(strings.get(tag));
+                    }
+                }
+                out.finish();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void intern(Map<String, Integer> strings, String value) {
+        if (value != null) {
+            strings.putIfAbsent(value, strings.size());
+        }
+    }
+
+    private static int ref(Map<String, Integer> strings, String value) {
+        return value == null ? -1 : strings.get(value);
+    }
+
+    private static String ref(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Buffered channel writer that keeps a running CRC32 of everything written
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        private final CRC32 crc = new CRC32();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        // Flushes, then appends the CRC32 of everything written so far
+        void finish() throws IOException {
+            drain();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
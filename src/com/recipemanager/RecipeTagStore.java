@@ -0,0 +1,179 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes {@code recipe_tags}. Loads fetch every assignment of a batch of recipes
+ * with one joined query instead of one query per recipe, and writes go out as JDBC batches.
+ * Tag names are resolved through {@link TagDictionary}, so each tag row is looked up in the
+ * database at most once per process.
+ */
+final class RecipeTagStore {
+
+    static final int BATCH_SIZE = 100;
+
+    private static final String ASSIGNMENTS =
+            "SELECT rt.recipe_id, t.id, t.name FROM recipe_tags rt JOIN tags t ON t.id = rt.tag_id";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM recipe_tags WHERE recipe_id = (SELECT id FROM recipes WHERE name = ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO recipe_tags (recipe_id, tag_id) SELECT id, ? FROM recipes WHERE name = ?";
+
+    private RecipeTagStore() {
+    }
+
+    // Attaches every tag assignment in the database to the recipes in byId with a single query
+    static void loadAll(Connection conn, Map<Integer, Recipe> byId) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ASSIGNMENTS + " ORDER BY rt.recipe_id")) {
+            read(rs, byId);
+        }
+    }
+
+    // Attaches the tags of just these recipes, BATCH_SIZE ids per query
+    static void loadFor(Connection conn, List<Recipe> recipes) throws SQLException {
+        for (int from = 0; from < recipes.size(); from += BATCH_SIZE) {
+            List<Recipe> chunk = recipes.subList(from, Math.min(from + BATCH_SIZE, recipes.size()));
+            Map<Integer, Recipe> byId = new HashMap<>();
+            StringBuilder sql = new StringBuilder(ASSIGNMENTS).append(" WHERE rt.recipe_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                byId.put(chunk.get(i).getId(), chunk.get(i));
+            }
+            sql.append(") ORDER BY rt.recipe_id");
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i).getId());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    read(rs, byId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the tags of newly inserted recipes and replaces those of updated ones. Recipes
+     * are matched by name, so this also works before their generated ids are known.
+     */
+    static void write(Connection conn, Collection<Recipe> inserted, Collection<Recipe> updated) throws SQLException {
+        resolveDatabaseIds(conn, inserted, updated);
+        try (PreparedStatement delete = conn.prepareStatement(DELETE_SQL);
+             PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+            for (Recipe recipe : updated) {
+                delete.setString(1, recipe.getName());
+                delete.addBatch();
+            }
+            int rows = addAssignments(insert, inserted) + addAssignments(insert, updated);
+            if (!updated.isEmpty()) delete.executeBatch();
+            if (rows > 0) insert.executeBatch();
+        }
+    }
+
+    private static int addAssignments(PreparedStatement insert, Collection<Recipe> recipes) throws SQLException {
+        int rows = 0;
+        for (Recipe recipe : recipes) {
+            for (int tag : recipe.tagIds()) {
+                insert.setInt(1, TagDictionary.databaseId(tag));
+                insert.setString(2, recipe.getName());
+                insert.addBatch();
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Creates missing tag rows and learns the tags.id of every tag the recipes use
+    private static void resolveDatabaseIds(Connection conn, Collection<Recipe> inserted, Collection<Recipe> updated)
+            throws SQLException {
+        Set<String> missing = new LinkedHashSet<>();
+        for (Collection<Recipe> recipes : List.of(inserted, updated)) {
+            for (Recipe recipe : recipes) {
+                for (int tag : recipe.tagIds()) {
+                    if (TagDictionary.databaseId(tag) == 0) {
+                        missing.add(TagDictionary.name(tag));
+                    }
+                }
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT IGNORE INTO tags (name) VALUES (?)")) {
+            for (String name : missing) {
+                stmt.setString(1, name);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        List<String> names = new ArrayList<>(missing);
+        for (int from = 0; from < names.size(); from += BATCH_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + BATCH_SIZE, names.size()));
+            StringBuilder sql = new StringBuilder("SELECT id, name FROM tags WHERE name IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        TagDictionary.bindDatabaseId(TagDictionary.intern(rs.getString("name")), rs.getInt("id"));
+                    }
+                }
+            }
+        }
+    }
+
+    // Rows arrive grouped by recipe_id; each group becomes one sorted id array
+    private static void read(ResultSet rs, Map<Integer, Recipe> byId) throws SQLException {
+        int current = -1;
+        int[] buffer = new int[8];
+        int count = 0;
+        while (rs.next()) {
+            int recipeId = rs.getInt(1);
+            if (recipeId != current) {
+                assign(byId.get(current), buffer, count);
+                current = recipeId;
+                count = 0;
+            }
+            int tag = TagDictionary.intern(rs.getString(3));
+            TagDictionary.bindDatabaseId(tag, rs.getInt(2));
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count * 2);
+            }
+            buffer[count++] = tag;
+        }
+        assign(byId.get(current), buffer, count);
+    }
+
+    private static void assign(Recipe recipe, int[] buffer, int count) {
+        if (recipe == null) return;
+        int[] ids = Arrays.copyOf(buffer, count);
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        recipe.setTagIds(Arrays.copyOf(ids, distinct));
+    }
+}
@@ -0,0 +1,137 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads description, instructions and notes for summary-loaded recipes in batches of
+ * {@link #BATCH_SIZE} ids and keeps at most {@code capacity} recipes' text resident.
+ * When a recipe falls out of the LRU order its text is released again and will be
+ * re-fetched on the next access.
+ *
+ * Queries run without the cache lock, which guards only the LRU order. A recipe already
+ * being fetched by another thread is not fetched again; the caller waits for that fetch.
+ */
+class RecipeTextCache implements RecipeTextLoader {
+
+    static final int BATCH_SIZE = 100;
+
+    private final int capacity;
+    private final LinkedHashMap<Recipe, Boolean> resident;
+    // Recipes whose text is being fetched, completed when the fetch ends either way
+    private final Map<Recipe, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    RecipeTextCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Recipe, Boolean> eldest) {
+                if (size() > RecipeTextCache.this.capacity) {
+                    eldest.getKey().releaseText();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void loadText(Recipe recipe) {
+        load(Collections.singletonList(recipe));
+    }
+
+    synchronized void clear() {
+        resident.clear();
+    }
+
+    synchronized int size() {
+        return resident.size();
+    }
+
+    // Fetches text for every recipe in the collection that does not have it yet.
+    void load(Collection<Recipe> recipes) {
+        List<Recipe> missing = new ArrayList<>();
+        List<CompletableFuture<Void>> awaited = new ArrayList<>();
+        CompletableFuture<Void> claim = new CompletableFuture<>();
+        synchronized (this) {
+            for (Recipe recipe : recipes) {
+                if (recipe.isTextLoaded()) {
+                    resident.get(recipe); // refresh LRU position
+                } else if (recipe.getId() > 0) {
+                    CompletableFuture<Void> other = inFlight.putIfAbsent(recipe, claim);
+                    if (other == null) {
+                        // Re-checked once claimed: a fetch may have finished since the check above
+                        if (recipe.isTextLoaded()) {
+                            inFlight.remove(recipe, claim);
+                        } else {
+                            missing.add(recipe);
+                        }
+                    } else {
+                        awaited.add(other);
+                    }
+                }
+            }
+        }
+
+        try {
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                List<Recipe> chunk = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+                try {
+                    fetch(chunk);
+                } catch (SQLException e) {
+                    System.err.println("❌ Error loading recipe details from DB: " + e.getMessage());
+                    break;
+                }
+            }
+        } finally {
+            for (Recipe recipe : missing) {
+                inFlight.remove(recipe, claim);
+            }
+            claim.complete(null);
+        }
+        for (CompletableFuture<Void> other : awaited) {
+            other.join();
+        }
+    }
+
+    private void fetch(List<Recipe> chunk) throws SQLException {
+        Map<Integer, Recipe> byId = new HashMap<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, description, instructions, notes FROM recipes WHERE id IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            byId.put(chunk.get(i).getId(), chunk.get(i));
+        }
+        sql.append(')');
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                stmt.setInt(i + 1, chunk.get(i).getId());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Recipe recipe = byId.get(rs.getInt("id"));
+                    if (recipe == null) continue;
+                    recipe.applyText(rs.getString("description"),
+                            rs.getString("instructions"),
+                            rs.getString("notes"));
+                    synchronized (this) {
+                        resident.put(recipe, Boolean.TRUE);
+                    }
+                }
+            }
+        }
+    }
+}
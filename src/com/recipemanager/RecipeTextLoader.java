@@ -0,0 +1,11 @@
+package com.recipemanager;
+
+/**
+ * Supplies the long text columns (description, instructions, notes) of a recipe that was
+ * loaded through the summary projection.
+ */
+interface RecipeTextLoader {
+
+    // Must leave the recipe with its text applied, or untouched if the text is unavailable.
+    void loadText(Recipe recipe);
+}
@@ -1,26 +1,75 @@
 package com.recipemanager;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.control.TextArea;
-import java.util.Arrays;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class RecipeView {
 
+    // Typing pause after which suggestions (and the live filter) run, -Drecipemanager.searchDelayMs
+    private static final long SEARCH_DELAY_MS = Long.getLong("recipemanager.searchDelayMs", 150);
+    // Typo fallback when a search finds nothing, -Drecipemanager.fuzzy.maxEdits (0 turns it off)
+    private static final int FUZZY_MAX_EDITS = Integer.getInteger("recipemanager.fuzzy.maxEdits", 2);
+    private static final int FUZZY_LIMIT = 200;
+    // Pushdown mode: rows fetched per page, and how close to the end of the list the next one is requested
+    private static final int PAGE_SIZE = Integer.getInteger("recipemanager.pushdown.pageSize", 100);
+    private static final int PREFETCH_ROWS = 20;
+
     private final VBox root;
     private final ListView<String> recipeList;
     private final TextField searchField;
     private final VBox detailsBox;
     private final ContextMenu autoCompleteMenu;
-    private final RecipeRepository recipeRepository;
+    private final CheckBox liveFilter;
+    private final PauseTransition searchDelay;
+    private final AsyncRecipeRepository recipeRepository;
+    // Pages results out of the database instead of listing the in-memory repository
+    private final boolean pushdown;
+
+    // Detail nodes are built once and refilled on every selection
+    private final Label nameLabel = new Label();
+    private final Label descLabel = new Label();
+    private final Label catLabel = new Label();
+    private final Label diffLabel = new Label();
+    private final Label timeLabel = new Label();
+    private final TextArea ingArea = new TextArea();
+    private final TextArea instArea = new TextArea();
+
+    // In-flight requests; a newer request of the same kind cancels the older one
+    private CompletableFuture<List<Recipe>> pendingListRequest;
+    private CompletableFuture<Recipe> pendingDetails;
+    private CompletableFuture<List<String>> pendingSuggestions;
+
+    // Pushdown paging: the query being listed, the key after the last listed row, and the page in flight
+    private FacetQuery pageQuery = new FacetQuery();
+    private int pageKey;
+    private boolean morePages;
+    private CompletableFuture<RecipePage> pendingPage;
+
+    public RecipeView(AsyncRecipeRepository recipeRepository) {
+        this(recipeRepository, false);
+    }
 
-    public RecipeView(RecipeRepository recipeRepository) {
+    /**
+     * With {@code pushdown} the list and search are answered a page at a time by
+     * {@link AsyncRecipeRepository#queryDatabase}, and the next page is fetched as the list
+     * is scrolled towards its end, so only the names scrolled past are held in memory.
+     */
+    public RecipeView(AsyncRecipeRepository recipeRepository, boolean pushdown) {
         this.recipeRepository = recipeRepository;
+        this.pushdown = pushdown;
 
         root = new VBox(10);
         root.setPadding(new Insets(20));
@@ -30,6 +79,9 @@ public class RecipeView {
         searchField = new TextField();
         detailsBox = new VBox(10);
         autoCompleteMenu = new ContextMenu();
+        liveFilter = new CheckBox("Live filter");
+        searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MS));
+        searchDelay.setOnFinished(e -> onTypingPaused());
 
         root.getChildren().addAll(
             createTitle(),
@@ -38,8 +90,7 @@ public class RecipeView {
             createDetailsPane(),
             createButtonBar()
         );
-
-        updateRecipeList();
+        // The list is filled by updateRecipeList() once the repository has loaded
     }
 
     private Label createTitle() {
@@ -56,24 +107,59 @@ public class RecipeView {
 
         searchField.setPromptText("Enter ingredients or recipe name...");
         searchField.setPrefWidth(400);
-        searchField.setOnKeyReleased(e -> handleAutoComplete());
+        // Restarted on every edit, so only a pause in typing reaches the repository
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchDelay.playFromStart());
+        searchField.setOnAction(e -> searchRecipes());
 
         Button searchButton = new Button("Search 🍴");
         searchButton.setOnAction(e -> searchRecipes());
 
-        searchBox.getChildren().addAll(searchField, searchButton);
+        liveFilter.setSelected(true);
+
+        searchBox.getChildren().addAll(searchField, searchButton, liveFilter);
         return searchBox;
     }
 
     private ListView<String> createRecipeList() {
         recipeList.setPrefHeight(300);
+        recipeList.setPlaceholder(new Label("Loading recipes…"));
         recipeList.getSelectionModel().selectedItemProperty()
                 .addListener((obs, oldVal, newVal) -> showRecipeDetails(newVal));
+        if (pushdown) {
+            recipeList.setCellFactory(list -> new ListCell<>() {
+                @Override
+                protected void updateItem(String item, boolean empty) {
+                    super.updateItem(item, empty);
+                    setText(empty ? null : item);
+                    // A row near the end became visible: fetch the next page before it is reached
+                    if (!empty && getIndex() >= list.getItems().size() - PREFETCH_ROWS) {
+                        loadNextPage();
+                    }
+                }
+            });
+        }
         return recipeList;
     }
 
     private ScrollPane createDetailsPane() {
         detailsBox.setPadding(new Insets(20));
+        nameLabel.setStyle("-fx-font-size: 22px; -fx-font-weight: bold;");
+
+        ingArea.setEditable(false);
+        ingArea.setWrapText(true);
+        ingArea.setPrefRowCount(4);
+
+        instArea.setEditable(false);
+        instArea.setWrapText(true);
+        instArea.setPrefRowCount(6);
+
+        detailsBox.getChildren().addAll(
+                nameLabel, descLabel, catLabel, diffLabel, timeLabel,
+                new Label("🥄 Ingredients:"), ingArea,
+                new Label("📋 Instructions:"), instArea
+        );
+        detailsBox.setVisible(false);
+
         ScrollPane scrollPane = new ScrollPane(detailsBox);
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(350);
@@ -90,7 +176,10 @@ public class RecipeView {
         Button removeButton = new Button("Remove Recipe ❌");
         removeButton.setOnAction(e -> removeSelectedRecipe());
 
-        buttonBox.getChildren().addAll(addButton, removeButton);
+        Button refreshButton = new Button("Refresh 🔄");
+        refreshButton.setOnAction(e -> refreshRecipes());
+
+        buttonBox.getChildren().addAll(addButton, removeButton, refreshButton);
         return buttonBox;
     }
 
@@ -99,80 +188,145 @@ public class RecipeView {
     }
 
     public void updateRecipeList() {
-        List<String> recipeNames = recipeRepository.getAllRecipes().stream()
-            .map(Recipe::getName)
-            .collect(Collectors.toList());
-        recipeList.getItems().setAll(recipeNames);
+        if (pushdown) {
+            startPaging(new FacetQuery());
+            return;
+        }
+        showInList(recipeRepository.getAllRecipes());
     }
 
-    private void showRecipeDetails(String recipeName) {
-        detailsBox.getChildren().clear();
-        if (recipeName == null) return;
-
-        Recipe recipe = recipeRepository.getAllRecipes().stream()
-                .filter(r -> r.getName().equals(recipeName))
-                .findFirst().orElse(null);
-
-        if (recipe == null) return;
+    // Pushdown mode: lists the first page of query; later pages follow the scrolling
+    private void startPaging(FacetQuery query) {
+        if (pendingPage != null) pendingPage.cancel(true);
+        pendingPage = null;
+        pageQuery = query;
+        pageKey = 0;
+        morePages = true;
+        loadNextPage();
+    }
 
-        Label nameLabel = new Label(recipe.getName());
-        nameLabel.setStyle("-fx-font-size: 22px; -fx-font-weight: bold;");
+    private void loadNextPage() {
+        if (pendingPage != null || !morePages) return;
+        boolean first = pageKey == 0;
+
+        CompletableFuture<RecipePage> request = recipeRepository.queryDatabase(pageQuery, pageKey, PAGE_SIZE);
+        pendingPage = request;
+
+        whenReady(request, "Error loading recipes", page -> {
+            if (pendingPage != request) return;
+            pendingPage = null;
+            pageKey = page.getNextKey();
+            morePages = page.hasMore();
+
+            List<String> names = new ArrayList<>(page.getRecipes().size());
+            for (Recipe recipe : page.getRecipes()) {
+                names.add(recipe.getName());
+            }
+            if (first) {
+                recipeList.setPlaceholder(new Label("No recipes found"));
+                recipeList.getItems().setAll(names);
+                recipeList.scrollTo(0);
+            } else {
+                recipeList.getItems().addAll(names);
+            }
+        });
+    }
 
-        Label descLabel = new Label(recipe.getDescription());
-        Label catLabel = new Label("Category: " + recipe.getCategory());
-        Label diffLabel = new Label("Difficulty: " + recipe.getDifficulty());
-        Label timeLabel = new Label("Prep: " + recipe.getPrepTime() + " min | Cook: " + recipe.getCookTime() + " min");
+    // Shows a list result unless a newer list request replaced it in the meantime
+    private void showInList(CompletableFuture<List<Recipe>> request) {
+        if (pendingListRequest != null) pendingListRequest.cancel(true);
+        pendingListRequest = request;
+
+        whenReady(request, "Error loading recipes", results -> {
+            if (pendingListRequest != request) return;
+            recipeList.setPlaceholder(new Label("No recipes found"));
+            List<String> names = new ArrayList<>(results.size());
+            for (Recipe recipe : results) {
+                names.add(recipe.getName());
+            }
+            ListDiff.apply(recipeList.getItems(), names);
+        });
+    }
 
-        TextArea ingArea = new TextArea(recipe.getIngredients());
-        ingArea.setEditable(false);
-        ingArea.setWrapText(true);
-        ingArea.setPrefRowCount(4);
+    private void showRecipeDetails(String recipeName) {
+        if (pendingDetails != null) pendingDetails.cancel(true);
+        if (recipeName == null) {
+            detailsBox.setVisible(false);
+            return;
+        }
 
-        TextArea instArea = new TextArea(recipe.getInstructions());
-        instArea.setEditable(false);
-        instArea.setWrapText(true);
-        instArea.setPrefRowCount(6);
+        CompletableFuture<Recipe> request = pushdown
+                ? recipeRepository.findInDatabaseWithDetails(recipeName)
+                : recipeRepository.findWithDetails(recipeName);
+        pendingDetails = request;
+
+        whenReady(request, "Error loading recipe details", recipe -> {
+            if (pendingDetails != request || recipe == null) return;
+
+            nameLabel.setText(recipe.getName());
+            descLabel.setText(recipe.getDescription());
+            catLabel.setText("Category: " + recipe.getCategory());
+            diffLabel.setText("Difficulty: " + recipe.getDifficulty());
+            timeLabel.setText("Prep: " + recipe.getPrepTime() + " min | Cook: " + recipe.getCookTime() + " min");
+            ingArea.setText(recipe.getIngredients());
+            ingArea.setScrollTop(0);
+            instArea.setText(recipe.getInstructions());
+            instArea.setScrollTop(0);
+            detailsBox.setVisible(true);
+        });
+    }
 
-        detailsBox.getChildren().addAll(
-                nameLabel, descLabel, catLabel, diffLabel, timeLabel,
-                new Label("🥄 Ingredients:"), ingArea,
-                new Label("📋 Instructions:"), instArea
-        );
+    // Runs once typing pauses for SEARCH_DELAY_MS
+    private void onTypingPaused() {
+        handleAutoComplete();
+        if (liveFilter.isSelected()) {
+            searchRecipes();
+        }
     }
 
     private void handleAutoComplete() {
         String text = searchField.getText().toLowerCase();
         autoCompleteMenu.hide();
+        if (pendingSuggestions != null) pendingSuggestions.cancel(true);
         if (text.isEmpty()) return;
 
-        List<String> suggestions = recipeRepository.getAllRecipes().stream()
-                .flatMap(r -> Arrays.stream((r.getName() + "," + r.getIngredients()).split(",")))
-                .map(String::trim)
-                .filter(s -> s.toLowerCase().contains(text))
-                .distinct()
-                .limit(10)
-                .collect(Collectors.toList());
-
-        if (suggestions.isEmpty()) return;
-
-        autoCompleteMenu.getItems().setAll(suggestions.stream().map(s -> {
-            CustomMenuItem item = new CustomMenuItem(new Label(s), true);
-            item.setOnAction(e -> {
-                searchField.setText(s);
-                searchRecipes();
-            });
-            return item;
-        }).collect(Collectors.toList()));
-
-        autoCompleteMenu.show(searchField, Side.BOTTOM, 0, 0);
+        CompletableFuture<List<String>> request = pushdown
+                ? recipeRepository.suggestFromDatabase(text, 10)
+                : recipeRepository.suggest(text, 10);
+        pendingSuggestions = request;
+
+        whenReady(request, "Error loading suggestions", suggestions -> {
+            if (pendingSuggestions != request || suggestions.isEmpty()) return;
+
+            autoCompleteMenu.getItems().setAll(suggestions.stream().map(s -> {
+                CustomMenuItem item = new CustomMenuItem(new Label(s), true);
+                item.setOnAction(e -> {
+                    searchField.setText(s);
+                    searchDelay.stop();
+                    searchRecipes();
+                });
+                return item;
+            }).collect(Collectors.toList()));
+
+            autoCompleteMenu.show(searchField, Side.BOTTOM, 0, 0);
+        });
     }
 
     private void searchRecipes() {
         String query = searchField.getText().trim().toLowerCase();
-        List<Recipe> results = query.isEmpty()
-            ? recipeRepository.getAllRecipes()
-            : recipeRepository.searchRecipes(query);
-        recipeList.getItems().setAll(results.stream().map(Recipe::getName).collect(Collectors.toList()));
+        if (pushdown) {
+            startPaging(new FacetQuery().text(query));
+            return;
+        }
+        if (query.isEmpty()) {
+            showInList(recipeRepository.getAllRecipes());
+            return;
+        }
+        // "omlette" finds nothing by substring; retry with the closest spellings instead
+        showInList(recipeRepository.searchRecipes(query).thenCompose(results ->
+                results.isEmpty() && FUZZY_MAX_EDITS > 0
+                        ? recipeRepository.searchFuzzy(query, FUZZY_MAX_EDITS, FUZZY_LIMIT)
+                        : CompletableFuture.completedFuture(results)));
     }
 
     private void addRecipe() {
@@ -185,8 +339,8 @@ public class RecipeView {
             Recipe newRecipe = new Recipe(
                 name, "New description", "", "", "Uncategorized", 0, 1, "serving"
             );
-            recipeRepository.addRecipe(newRecipe);
-            updateRecipeList();
+            whenReady(recipeRepository.addRecipe(newRecipe), "Error adding recipe",
+                    done -> updateRecipeList());
         });
     }
 
@@ -194,14 +348,40 @@ public class RecipeView {
         String selected = recipeList.getSelectionModel().getSelectedItem();
         if (selected == null) return;
 
-        Recipe recipeToRemove = recipeRepository.getAllRecipes().stream()
-                .filter(r -> r.getName().equals(selected))
-                .findFirst().orElse(null);
+        CompletableFuture<Recipe> lookup = pushdown
+                ? recipeRepository.findInDatabase(selected)
+                : recipeRepository.findByName(selected);
+        CompletableFuture<Boolean> removal = lookup
+                .thenCompose(recipe -> recipe == null
+                        ? CompletableFuture.completedFuture(false)
+                        : recipeRepository.removeRecipe(recipe).thenApply(done -> true));
+
+        whenReady(removal, "Error removing recipe", removed -> {
+            if (removed) {
+                updateRecipeList();
+                detailsBox.setVisible(false);
+            }
+        });
+    }
 
-        if (recipeToRemove != null) {
-            recipeRepository.removeRecipe(recipeToRemove);
-            updateRecipeList();
-            detailsBox.getChildren().clear();
+    private void refreshRecipes() {
+        if (pushdown) {
+            // Nothing is cached in pushdown mode; re-reading the current query is the refresh
+            startPaging(pageQuery);
+            return;
         }
+        whenReady(recipeRepository.refresh(), "Error refreshing recipes", done -> updateRecipeList());
+    }
+
+    // Hands a finished background result to the FX thread; cancelled requests are dropped
+    private static <T> void whenReady(CompletableFuture<T> request, String failureMessage, Consumer<T> action) {
+        request.whenCompleteAsync((value, error) -> {
+            if (request.isCancelled()) return;
+            if (error != null) {
+                System.err.println("❌ " + failureMessage + ": " + error.getMessage());
+                return;
+            }
+            action.accept(value);
+        }, Platform::runLater);
     }
 }
@@ -0,0 +1,430 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for recipe mutations.
+ *
+ * Inserts, updates and deletes are queued per recipe name and coalesced (an insert followed
+ * by updates stays one insert, an insert followed by a delete disappears). A single background
+ * thread flushes the queue as JDBC batches inside one transaction whenever it reaches the
+ * batch size or the flush interval elapses. Field values are read when the batch is written,
+ * so the latest state of a recipe is what reaches the database.
+ *
+ * A failed batch is rolled back, reported on {@code System.err} and requeued ahead of later
+ * changes, coalesced with anything queued for the same names meanwhile. Background retries
+ * back off from the flush interval, doubling per consecutive failure up to a minute;
+ * {@link #flush()} retries right away and {@link #close()} a few times before giving up.
+ * The first failure since the last call is rethrown from both. A batch the database rejects
+ * with a constraint violation (e.g. a name another instance inserted meanwhile) is written
+ * again one change at a time instead, and only the rejected changes are dropped: retrying
+ * them could never succeed and would hold back everything queued behind them.
+ *
+ * The generated ids of inserted recipes go to the {@link IdListener} once their batch has
+ * committed.
+ *
+ * {@link #trackWrites()} and {@link #unsettledNames()} bracket a read of the database by
+ * {@link RecipeRepository#refresh()}: the rows it read for those names may predate changes
+ * still queued, being written, or written during the read.
+ */
+class RecipeWriteBehind implements AutoCloseable {
+
+    private enum Kind { INSERT, UPDATE, DELETE, REPLACE }
+
+    private static final String INSERT_SQL = "INSERT INTO recipes (" +
+            "name, description, ingredients, instructions, category_id, calories, servings, serving_unit, " +
+            "prep_time, cook_time, difficulty_id, is_favorite, notes, protein, carbs, fat, rating) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE recipes SET " +
+            "description = ?, ingredients = ?, instructions = ?, category_id = ?, " +
+            "calories = ?, servings = ?, serving_unit = ?, prep_time = ?, cook_time = ?, " +
+            "difficulty_id = ?, is_favorite = ?, notes = ?, protein = ?, carbs = ?, fat = ?, rating = ?, " +
+            "updated_at = CURRENT_TIMESTAMP(3) " +
+            "WHERE name = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM recipes WHERE name = ?";
+
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final int CLOSE_ATTEMPTS = 3;
+
+    // Learns the generated ids of inserted recipes, in batch order; 0 where none came back
+    interface IdListener {
+        void idsAssigned(List<Recipe> inserted, int[] ids);
+    }
+
+    private static final class Mutation {
+        final Kind kind;
+        final Recipe recipe;
+
+        Mutation(Kind kind, Recipe recipe) {
+            this.kind = kind;
+            this.recipe = recipe;
+        }
+    }
+
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final IdListener idListener;
+    private final ReferenceIdCache referenceIds = new ReferenceIdCache();
+    private final ScheduledExecutorService executor;
+    private final Map<String, Mutation> pending = new LinkedHashMap<>();
+    // Names of the batch being written, and of batches written since trackWrites() (null when not tracking)
+    private final Set<String> writing = new HashSet<>();
+    private Set<String> written;
+    private boolean drainScheduled;
+    private boolean closed;
+    private SQLException failure;
+    // Background drains wait until retryAt (System.nanoTime) after a failed batch
+    private int consecutiveFailures;
+    private long retryAt;
+
+    RecipeWriteBehind(int batchSize, long flushIntervalMs, IdListener idListener) {
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.idListener = idListener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recipe-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> drain(false), flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void insert(Recipe recipe) {
+        enqueue(Kind.INSERT, recipe);
+    }
+
+    void update(Recipe recipe) {
+        enqueue(Kind.UPDATE, recipe);
+    }
+
+    void delete(Recipe recipe) {
+        enqueue(Kind.DELETE, recipe);
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Starts collecting the names of batches written from now on
+    synchronized void trackWrites() {
+        written = new HashSet<>();
+    }
+
+    // Names queued, being written, or written since trackWrites(); stops tracking
+    synchronized Set<String> unsettledNames() {
+        Set<String> names = new HashSet<>(pending.keySet());
+        names.addAll(writing);
+        if (written != null) {
+            names.addAll(written);
+            written = null;
+        }
+        return names;
+    }
+
+    /**
+     * Blocks until everything queued so far is written, retrying a failed batch without waiting
+     * for its backoff; rethrows the first failure since the last check. Changes that still
+     * failed stay queued.
+     */
+    void flush() throws SQLException {
+        try {
+            executor.submit(() -> drain(true)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing recipe writes", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Recipe write flush failed", e.getCause());
+        }
+        SQLException error;
+        synchronized (this) {
+            error = failure;
+            failure = null;
+        }
+        if (error != null) throw error;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    flush();
+                    return;
+                } catch (SQLException e) {
+                    int unwritten = pendingCount();
+                    if (unwritten == 0) throw e;
+                    if (attempt == CLOSE_ATTEMPTS) {
+                        throw new SQLException(unwritten + " queued recipe changes were not written", e);
+                    }
+                    System.err.println("❌ Retrying " + unwritten + " queued recipe changes before closing: " + e.getMessage());
+                    try {
+                        Thread.sleep(backoffMs(attempt));
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private synchronized void enqueue(Kind kind, Recipe recipe) {
+        if (closed) {
+            throw new IllegalStateException("Write-behind queue is closed");
+        }
+        String key = recipe.getName();
+        Mutation previous = pending.get(key);
+        Kind merged = previous == null ? kind : coalesce(previous.kind, kind);
+        if (merged == null) {
+            pending.remove(key);
+        } else {
+            pending.put(key, new Mutation(merged, recipe));
+        }
+        if (pending.size() >= batchSize && !drainScheduled) {
+            drainScheduled = true;
+            executor.execute(() -> drain(false));
+        }
+    }
+
+    // Result of applying "next" on top of a queued "queued" mutation; null cancels both.
+    private static Kind coalesce(Kind queued, Kind next) {
+        switch (next) {
+            case DELETE:
+                return queued == Kind.INSERT ? null : Kind.DELETE;
+            case INSERT:
+                return queued == Kind.DELETE || queued == Kind.REPLACE ? Kind.REPLACE : queued;
+            case REPLACE:
+                // Only from requeue: a delete and re-add queued after a failed batch
+                return queued == Kind.INSERT ? Kind.INSERT : Kind.REPLACE;
+            default:
+                return queued == Kind.DELETE ? Kind.DELETE : queued;
+        }
+    }
+
+    // Runs on the executor thread only; force skips the backoff after a failure
+    private void drain(boolean force) {
+        List<Mutation> batch;
+        synchronized (this) {
+            drainScheduled = false;
+            if (pending.isEmpty()) return;
+            if (!force && consecutiveFailures > 0 && System.nanoTime() - retryAt < 0) return;
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            writing.addAll(names(batch));
+        }
+        long start = System.nanoTime();
+        try {
+            write(batch);
+            written(batch, batch.size(), start);
+        } catch (SQLException e) {
+            if (rejected(e)) {
+                writeEach(batch, start);
+            } else {
+                failed(batch, e, start);
+            }
+        }
+    }
+
+    // After a constraint violation: one transaction per change, dropping those the database rejects
+    private void writeEach(List<Mutation> batch, long start) {
+        int count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Mutation m = batch.get(i);
+            try {
+                write(List.of(m));
+                count++;
+            } catch (SQLException e) {
+                if (!rejected(e)) {
+                    // Not this change's fault (e.g. the connection dropped): retry the rest later
+                    synchronized (this) {
+                        if (written != null) written.addAll(names(batch.subList(0, i)));
+                    }
+                    failed(batch.subList(i, batch.size()), e, start);
+                    return;
+                }
+                System.err.println("❌ Dropping queued " + m.kind.name().toLowerCase() + " of recipe " +
+                        m.recipe.getName() + ", rejected by the DB: " + e.getMessage());
+                synchronized (this) {
+                    if (failure == null) failure = e;
+                }
+            }
+        }
+        written(batch, count, start);
+    }
+
+    private void written(List<Mutation> batch, int count, long start) {
+        synchronized (this) {
+            consecutiveFailures = 0;
+            writing.clear();
+            if (written != null) written.addAll(names(batch));
+        }
+        Metrics.WRITE_BEHIND.addRows(count);
+        Metrics.WRITE_BEHIND.record(start);
+    }
+
+    private void failed(List<Mutation> batch, SQLException e, long start) {
+        Metrics.WRITE_BEHIND.recordFailure(start);
+        long backoff;
+        synchronized (this) {
+            writing.clear();
+            requeue(batch);
+            consecutiveFailures++;
+            backoff = backoffMs(consecutiveFailures);
+            retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+            if (failure == null) failure = e;
+        }
+        System.err.println("❌ Error writing " + batch.size() + " queued recipe changes to DB, retrying in " +
+                backoff + " ms: " + e.getMessage());
+    }
+
+    // Integrity constraint violations (SQLSTATE class 23): the same statement fails on every retry
+    private static boolean rejected(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException) return true;
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("23")) return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> names(List<Mutation> batch) {
+        List<String> names = new ArrayList<>(batch.size());
+        for (Mutation m : batch) {
+            names.add(m.recipe.getName());
+        }
+        return names;
+    }
+
+    // Flush interval doubled per consecutive failure, capped
+    private long backoffMs(int failures) {
+        return Math.min(MAX_BACKOFF_MS, flushIntervalMs << Math.min(failures - 1, 20));
+    }
+
+    // Puts a failed batch back ahead of what was queued since; a newer change to the same name
+    // is applied on top of the failed one, so it is neither lost nor overwritten
+    private void requeue(List<Mutation> batch) {
+        Map<String, Mutation> merged = new LinkedHashMap<>();
+        for (Mutation failed : batch) {
+            String key = failed.recipe.getName();
+            Mutation newer = pending.remove(key);
+            if (newer == null) {
+                merged.put(key, failed);
+            } else {
+                Kind kind = coalesce(failed.kind, newer.kind);
+                if (kind != null) merged.put(key, new Mutation(kind, newer.recipe));
+            }
+        }
+        merged.putAll(pending);
+        pending.clear();
+        pending.putAll(merged);
+    }
+
+    private void write(List<Mutation> batch) throws SQLException {
+        List<Recipe> inserted = new ArrayList<>();
+        int[] ids;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_SQL);
+                 PreparedStatement insert = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+                int deletes = 0;
+                List<Recipe> updated = new ArrayList<>();
+                for (Mutation m : batch) {
+                    if (m.kind == Kind.DELETE || m.kind == Kind.REPLACE) {
+                        delete.setString(1, m.recipe.getName());
+                        delete.addBatch();
+                        deletes++;
+                    }
+                    if (m.kind == Kind.INSERT || m.kind == Kind.REPLACE) {
+                        insert.setString(1, m.recipe.getName());
+                        bindColumns(conn, insert, 2, m.recipe);
+                        insert.addBatch();
+                        inserted.add(m.recipe);
+                    } else if (m.kind == Kind.UPDATE) {
+                        bindColumns(conn, update, 1, m.recipe);
+                        update.setString(17, m.recipe.getName());
+                        update.addBatch();
+                        updated.add(m.recipe);
+                    }
+                }
+                // Deletes first so a delete-then-re-add of the same name does not collide.
+                if (deletes > 0) delete.executeBatch();
+                if (!inserted.isEmpty()) insert.executeBatch();
+                if (!updated.isEmpty()) update.executeBatch();
+                RecipeTagStore.write(conn, inserted, updated);
+
+                // Generated ids come back in batch order. Read before the commit, so a failure
+                // here rolls the batch back rather than requeueing rows that are already in
+                ids = new int[inserted.size()];
+                if (!inserted.isEmpty()) {
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        for (int i = 0; i < ids.length && keys.next(); i++) {
+                            ids[i] = keys.getInt(1);
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        if (!inserted.isEmpty()) {
+            idListener.idsAssigned(inserted, ids);
+        }
+    }
+
+    // Binds description through rating (16 columns) starting at parameter index "from".
+    private void bindColumns(Connection conn, PreparedStatement stmt, int from, Recipe recipe) throws SQLException {
+        stmt.setString(from, recipe.getDescription());
+        stmt.setString(from + 1, recipe.getIngredients());
+        stmt.setString(from + 2, recipe.getInstructions());
+        setId(stmt, from + 3, referenceIds.categoryId(conn, recipe.getCategory()));
+        stmt.setInt(from + 4, recipe.getCalories());
+        stmt.setInt(from + 5, recipe.getServings());
+        stmt.setString(from + 6, recipe.getServingUnit());
+        stmt.setInt(from + 7, recipe.getPrepTime());
+        stmt.setInt(from + 8, recipe.getCookTime());
+        setId(stmt, from + 9, referenceIds.difficultyId(conn, recipe.getDifficulty()));
+        stmt.setBoolean(from + 10, recipe.isFavorite());
+        stmt.setString(from + 11, recipe.getNotes());
+        stmt.setDouble(from + 12, recipe.getProtein());
+        stmt.setDouble(from + 13, recipe.getCarbs());
+        stmt.setDouble(from + 14, recipe.getFat());
+        stmt.setDouble(from + 15, recipe.getRating());
+    }
+
+    private static void setId(PreparedStatement stmt, int index, Integer id) throws SQLException {
+        if (id == null) {
+            stmt.setNull(index, Types.INTEGER);
+        } else {
+            stmt.setInt(index, id);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.recipemanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Caches the category and difficulty lookup tables so batched writes can bind foreign keys
+ * directly instead of running a {@code (SELECT id FROM ... WHERE name = ?)} per row.
+ */
+class ReferenceIdCache {
+
+    // Case-insensitive like the default MySQL collation the subselects compared with.
+    private final Map<String, Integer> categoryIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Integer> difficultyIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Set<String> categoryMisses = new HashSet<>();
+    private final Set<String> difficultyMisses = new HashSet<>();
+    private boolean loaded;
+
+    synchronized Integer categoryId(Connection conn, String name) throws SQLException {
+        return lookup(conn, categoryIds, categoryMisses, name);
+    }
+
+    // Like categoryId, but creates the category when it does not exist yet (bulk import)
+    synchronized Integer ensureCategoryId(Connection conn, String name) throws SQLException {
+        Integer id = lookup(conn, categoryIds, categoryMisses, name);
+        if (id != null || name == null) return id;
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT IGNORE INTO categories (name) VALUES (?)")) {
+            stmt.setString(1, name);
+            stmt.executeUpdate();
+        }
+        categoryMisses.remove(name);
+        reload(conn);
+        return categoryIds.get(name);
+    }
+
+    synchronized Integer difficultyId(Connection conn, String label) throws SQLException {
+        return lookup(conn, difficultyIds, difficultyMisses, label);
+    }
+
+    synchronized void invalidate() {
+        loaded = false;
+        categoryMisses.clear();
+        difficultyMisses.clear();
+    }
+
+    // An unknown name reloads the tables once; if it is still missing it binds as NULL,
+    // exactly like the subselect it replaces, and is not looked up again until invalidate().
+    private Integer lookup(Connection conn, Map<String, Integer> ids, Set<String> misses, String name)
+            throws SQLException {
+        if (name == null) return null;
+        if (!loaded) {
+            reload(conn);
+        }
+        if (!ids.containsKey(name) && misses.add(name)) {
+            reload(conn);
+        }
+        return ids.get(name);
+    }
+
+    private void reload(Connection conn) throws SQLException {
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> difficulties = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM categories")) {
+                while (rs.next()) categories.put(rs.getString("name"), rs.getInt("id"));
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT id, label FROM difficulty_levels")) {
+                while (rs.next()) difficulties.put(rs.getString("label"), rs.getInt("id"));
+            }
+        }
+        categoryIds.clear();
+        categoryIds.putAll(categories);
+        difficultyIds.clear();
+        difficultyIds.putAll(difficulties);
+        loaded = true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.recipemanager;
+
+/**
+ * One result of {@link RecipeRepository#searchRanked}: a recipe and its BM25F relevance
+ * score. Scores are only comparable within one query.
+ */
+public class ScoredRecipe {
+
+    private final Recipe recipe;
+    private final double score;
+
+    ScoredRecipe(Recipe recipe, double score) {
+        this.recipe = recipe;
+        this.score = score;
+    }
+
+    public Recipe getRecipe() { return recipe; }
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return recipe.getName() + " (" + String.format("%.3f", score) + ")";
+    }
+}
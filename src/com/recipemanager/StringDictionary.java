@@ -0,0 +1,61 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings to dense int ids: each distinct string is stored once, ids start at 0 and
+ * are never reused. Lookups of known strings and of ids take no lock; adding a string is
+ * serialized on the dictionary. Shared by {@link TagDictionary}, {@link IngredientDictionary}
+ * and {@link LabelDictionary}.
+ */
+final class StringDictionary {
+
+    private final String kind;
+    private final int maxSize;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Guarded by this; readers see a fully written prefix through the volatile array
+    private volatile String[] strings;
+    private int size;
+
+    StringDictionary(String kind, int initialCapacity, int maxSize) {
+        this.kind = kind;
+        this.maxSize = maxSize;
+        this.strings = new String[Math.max(1, initialCapacity)];
+    }
+
+    // Id of the string, adding it on first use
+    int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) return id;
+            int next = size;
+            if (next == maxSize) {
+                throw new IllegalStateException("More than " + maxSize + " distinct " + kind);
+            }
+            String[] grown = next == strings.length ? Arrays.copyOf(strings, next * 2) : strings;
+            grown[next] = value;
+            strings = grown;
+            size = next + 1;
+            ids.put(value, next);
+            return next;
+        }
+    }
+
+    // Id of a known string, or -1 when it was never interned
+    int lookup(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    String get(int id) {
+        return strings[id];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,340 @@
+package com.recipemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie of recipe names and ingredient names used for search-box autocomplete.
+ *
+ * Each term is reachable from the start of every word it contains ("olive oil" is found by
+ * "ol" and "oi"). Terms are ranked by how many recipes use them, then by the summed
+ * rating of those recipes. Every node caches the top {@link #TOP_K} terms of its subtree;
+ * adding or removing a recipe only invalidates the caches on the paths it touched, so a
+ * lookup is a walk down the prefix plus, at worst, a re-merge of a few cached child lists.
+ */
+class SuggestionEngine {
+
+    static final int TOP_K = 10;
+
+    // Paths are cut off at this depth; longer prefixes are filtered within the subtree.
+    private static final int MAX_DEPTH = 16;
+
+    private static final Term[] NO_TERMS = new Term[0];
+
+    private static final Comparator<Term> RANKING = Comparator
+            .comparingInt((Term t) -> -t.count)
+            .thenComparingDouble(t -> -t.ratingSum)
+            .thenComparing(t -> t.key);
+
+    private final Node root = new Node();
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Recipe, Contribution> contributions = new IdentityHashMap<>();
+
+    private static final class Term {
+        final String text;
+        final String key;
+        int count;
+        double ratingSum;
+
+        Term(String text, String key) {
+            this.text = text;
+            this.key = key;
+        }
+    }
+
+    // What a recipe added to the trie, so it can be taken back even after the recipe changed.
+    private static final class Contribution {
+        final Term[] terms;
+        final double rating;
+
+        Contribution(Term[] terms, double rating) {
+            this.terms = terms;
+            this.rating = rating;
+        }
+    }
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        Term[] own = NO_TERMS;
+        // Filled lazily by concurrent readers (see top()); volatile for safe publication
+        volatile Term[] top;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node node = new Node();
+            keys = insertAt(keys, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) return;
+            char[] k = new char[keys.length - 1];
+            Node[] n = new Node[children.length - 1];
+            System.arraycopy(keys, 0, k, 0, i);
+            System.arraycopy(keys, i + 1, k, i, keys.length - i - 1);
+            System.arraycopy(children, 0, n, 0, i);
+            System.arraycopy(children, i + 1, n, i, children.length - i - 1);
+            keys = k;
+            children = n;
+        }
+
+        boolean isEmpty() {
+            return own.length == 0 && children.length == 0;
+        }
+    }
+
+    void clear() {
+        root.keys = new char[0];
+        root.children = new Node[0];
+        root.own = NO_TERMS;
+        root.top = null;
+        terms.clear();
+        contributions.clear();
+    }
+
+    void add(Recipe recipe) {
+        if (contributions.containsKey(recipe)) {
+            update(recipe);
+            return;
+        }
+        Map<String, String> recipeTerms = termsOf(recipe);
+        Term[] added = new Term[recipeTerms.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : recipeTerms.entrySet()) {
+            Term term = terms.get(entry.getKey());
+            boolean isNew = term == null;
+            if (isNew) {
+                term = new Term(entry.getValue(), entry.getKey());
+                terms.put(term.key, term);
+            }
+            term.count++;
+            term.ratingSum += recipe.getRating();
+            if (isNew) {
+                insert(term);
+            } else {
+                invalidate(term);
+            }
+            added[i++] = term;
+        }
+        contributions.put(recipe, new Contribution(added, recipe.getRating()));
+    }
+
+    void remove(Recipe recipe) {
+        Contribution contribution = contributions.remove(recipe);
+        if (contribution == null) return;
+        for (Term term : contribution.terms) {
+            term.count--;
+            term.ratingSum -= contribution.rating;
+            if (term.count == 0) {
+                terms.remove(term.key);
+                delete(term);
+            } else {
+                invalidate(term);
+            }
+        }
+    }
+
+    // Re-reads the terms of a tracked recipe whose name, ingredients or rating changed.
+    void update(Recipe recipe) {
+        if (!contributions.containsKey(recipe)) return;
+        remove(recipe);
+        add(recipe);
+    }
+
+    /** Best-ranked terms having a word that starts with {@code prefix}, case-insensitively. */
+    List<String> suggest(String prefix, int limit) {
+        String key = prefix.trim().toLowerCase();
+        List<String> result = new ArrayList<>();
+        if (key.isEmpty() || limit <= 0) return result;
+
+        Node node = root;
+        int depth = Math.min(key.length(), MAX_DEPTH);
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) return result;
+
+        if (key.length() <= MAX_DEPTH && limit <= TOP_K) {
+            for (Term term : top(node)) {
+                if (result.size() == limit) break;
+                result.add(term.text);
+            }
+            return result;
+        }
+
+        // Prefix longer than the trie depth (or more results than cached): rank the subtree.
+        Set<Term> found = new HashSet<>();
+        collect(node, key, found);
+        List<Term> matches = new ArrayList<>(found);
+        matches.sort(RANKING);
+        for (Term term : matches) {
+            if (result.size() == limit) break;
+            result.add(term.text);
+        }
+        return result;
+    }
+
+    private Term[] top(Node node) {
+        Term[] cached = node.top;
+        if (cached != null) return cached;
+        List<Term> candidates = new ArrayList<>(Arrays.asList(node.own));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(top(child)));
+        }
+        candidates.sort(RANKING);
+        // The same term can surface through several word starts below one node.
+        Map<String, Term> distinct = new LinkedHashMap<>();
+        for (Term term : candidates) {
+            if (distinct.size() == TOP_K) break;
+            distinct.putIfAbsent(term.key, term);
+        }
+        Term[] computed = distinct.values().toArray(NO_TERMS);
+        node.top = computed;
+        return computed;
+    }
+
+    private void collect(Node node, String key, Set<Term> out) {
+        for (Term term : node.own) {
+            if (hasWordStartingWith(term.key, key)) {
+                out.add(term);
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, key, out);
+        }
+    }
+
+    private void insert(Term term) {
+        for (int start : wordStarts(term.key)) {
+            Node node = root;
+            node.top = null;
+            int end = Math.min(term.key.length(), start + MAX_DEPTH);
+            for (int i = start; i < end; i++) {
+                node = node.childOrCreate(term.key.charAt(i));
+                node.top = null;
+            }
+            if (!Arrays.asList(node.own).contains(term)) {
+                node.own = append(node.own, term);
+            }
+        }
+    }
+
+    private void delete(Term term) {
+        for (int start : wordStarts(term.key)) {
+            int end = Math.min(term.key.length(), start + MAX_DEPTH);
+            Node[] path = new Node[end - start + 1];
+            path[0] = root;
+            root.top = null;
+            for (int i = start; i < end && path[i - start] != null; i++) {
+                Node next = path[i - start].child(term.key.charAt(i));
+                path[i - start + 1] = next;
+                if (next != null) next.top = null;
+            }
+            Node last = path[path.length - 1];
+            if (last == null) continue;
+            last.own = without(last.own, term);
+            // Prune branches that no longer lead to any term.
+            for (int d = path.length - 1; d > 0 && path[d].isEmpty(); d--) {
+                path[d - 1].removeChild(term.key.charAt(start + d - 1));
+            }
+        }
+    }
+
+    private void invalidate(Term term) {
+        for (int start : wordStarts(term.key)) {
+            Node node = root;
+            node.top = null;
+            int end = Math.min(term.key.length(), start + MAX_DEPTH);
+            for (int i = start; i < end && node != null; i++) {
+                node = node.child(term.key.charAt(i));
+                if (node != null) node.top = null;
+            }
+        }
+    }
+
+    // Lowercase key -> display text for the recipe name and each parsed ingredient name.
+    private static Map<String, String> termsOf(Recipe recipe) {
+        Map<String, String> result = new LinkedHashMap<>();
+        addTerm(result, recipe.getName());
+        for (Ingredient ingredient : recipe.parsedIngredients()) {
+            addTerm(result, ingredient.getName());
+        }
+        return result;
+    }
+
+    private static void addTerm(Map<String, String> into, String text) {
+        if (text == null) return;
+        String trimmed = text.trim();
+        if (!trimmed.isEmpty()) {
+            into.putIfAbsent(trimmed.toLowerCase(), trimmed);
+        }
+    }
+
+    private static int[] wordStarts(String key) {
+        int[] starts = new int[key.length()];
+        int count = 0;
+        for (int i = 0; i < key.length(); i++) {
+            boolean wordChar = Character.isLetterOrDigit(key.charAt(i));
+            boolean previousWordChar = i > 0 && Character.isLetterOrDigit(key.charAt(i - 1));
+            if (i == 0 || (wordChar && !previousWordChar)) {
+                starts[count++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    private static boolean hasWordStartingWith(String key, String prefix) {
+        for (int start : wordStarts(key)) {
+            if (key.startsWith(prefix, start)) return true;
+        }
+        return false;
+    }
+
+    private static char[] insertAt(char[] array, int at, char c) {
+        char[] grown = new char[array.length + 1];
+        System.arraycopy(array, 0, grown, 0, at);
+        grown[at] = c;
+        System.arraycopy(array, at, grown, at + 1, array.length - at);
+        return grown;
+    }
+
+    private static Term[] append(Term[] array, Term term) {
+        Term[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = term;
+        return grown;
+    }
+
+    private static Term[] without(Term[] array, Term term) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == term) {
+                Term[] shrunk = new Term[array.length - 1];
+                System.arraycopy(array, 0, shrunk, 0, i);
+                System.arraycopy(array, i + 1, shrunk, i, array.length - i - 1);
+                return shrunk.length == 0 ? NO_TERMS : shrunk;
+            }
+        }
+        return array;
+    }
+}
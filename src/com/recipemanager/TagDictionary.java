@@ -0,0 +1,46 @@
+package com.recipemanager;
+
+import java.util.Arrays;
+
+/**
+ * Process-wide dictionary of lowercase tag names. Every distinct tag is stored once and
+ * recipes only keep its small int id; ids are dense, start at 0 and are never reused.
+ *
+ * The dictionary also remembers each tag's {@code tags.id} once it has been read from or
+ * written to the database, so saving recipe tags does not look names up again.
+ */
+final class TagDictionary {
+
+    private static final StringDictionary names = new StringDictionary("tags", 64, Integer.MAX_VALUE);
+    // Guarded by the class lock; grown on demand, 0 for tags not bound yet
+    private static int[] databaseIds = new int[64];
+
+    private TagDictionary() {
+    }
+
+    // Id of the tag, adding it on first use
+    static int intern(String tag) {
+        return names.intern(tag.toLowerCase());
+    }
+
+    // Id of a known tag, or -1 when no recipe ever used it
+    static int lookup(String tag) {
+        return tag == null ? -1 : names.lookup(tag.toLowerCase());
+    }
+
+    static String name(int id) {
+        return names.get(id);
+    }
+
+    // tags.id of the tag, or 0 while it is unknown
+    static synchronized int databaseId(int id) {
+        return id < databaseIds.length ? databaseIds[id] : 0;
+    }
+
+    static synchronized void bindDatabaseId(int id, int databaseId) {
+        if (id >= databaseIds.length) {
+            databaseIds = Arrays.copyOf(databaseIds, Math.max(id + 1, databaseIds.length * 2));
+        }
+        databaseIds[id] = databaseId;
+    }
+}
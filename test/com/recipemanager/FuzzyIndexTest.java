@@ -0,0 +1,196 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fuzzy search and its parts against brute force: the banded distance against the full
+ * optimal string alignment table, {@link OrdinalSlots} against a map, and search results
+ * against a scan of every word of every recipe. A four-letter alphabet makes near misses,
+ * including words sharing no trigram with the query, the common case.
+ */
+class FuzzyIndexTest {
+
+    private static final String LETTERS = "abcd";
+
+    @Test
+    void boundedDistanceMatchesFullTable() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            String a = word(random, random.nextInt(9));
+            String b = random.nextBoolean() ? mutate(random, a, random.nextInt(4)) : word(random, random.nextInt(9));
+            int max = random.nextInt(4);
+            assertEquals(Math.min(distance(a, b), max + 1), FuzzyIndex.boundedDistance(a, b, max),
+                    a + " / " + b + " within " + max);
+        }
+    }
+
+    @Test
+    void ordinalSlotsMatchMap() {
+        Random random = new Random(2);
+        for (int round = 0; round < 50; round++) {
+            OrdinalSlots slots = new OrdinalSlots(random.nextInt(100));
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int i = 0; i < 2_000; i++) {
+                int ordinal = random.nextInt(round % 2 == 0 ? 3_000 : 1_000_000);
+                if (random.nextBoolean()) {
+                    Integer slot = expected.computeIfAbsent(ordinal, o -> expected.size());
+                    assertEquals(slot.intValue(), slots.add(ordinal));
+                } else {
+                    assertEquals(expected.getOrDefault(ordinal, -1).intValue(), slots.find(ordinal));
+                }
+            }
+            assertEquals(expected.size(), slots.size());
+            for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+                assertEquals(e.getKey().intValue(), slots.ordinal(e.getValue()));
+            }
+        }
+    }
+
+    @Test
+    void searchMatchesScan() {
+        Random random = new Random(3);
+        FuzzyIndex index = new FuzzyIndex();
+        Recipe[] byOrdinal = new Recipe[400];
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            byOrdinal[ordinal] = recipe(random, ordinal);
+            index.put(ordinal, byOrdinal[ordinal]);
+        }
+        for (int i = 0; i < 100; i++) {
+            int ordinal = random.nextInt(byOrdinal.length);
+            if (random.nextBoolean()) {
+                index.remove(ordinal);
+                byOrdinal[ordinal] = null;
+            } else {
+                byOrdinal[ordinal] = recipe(random, ordinal);
+                index.put(ordinal, byOrdinal[ordinal]);
+            }
+        }
+
+        for (int i = 0; i < 3_000; i++) {
+            StringBuilder query = new StringBuilder();
+            for (int t = 0, n = 1 + random.nextInt(2); t < n; t++) {
+                query.append(t > 0 ? " " : "").append(mutate(random, word(random, 2 + random.nextInt(8)), random.nextInt(3)));
+            }
+            int maxEdits = random.nextInt(4);
+            int max = random.nextBoolean() ? 5 : 1_000;
+            assertEquals(scan(query.toString(), maxEdits, max, byOrdinal),
+                    index.search(query.toString(), maxEdits, max, byOrdinal),
+                    "\"" + query + "\" within " + maxEdits);
+        }
+    }
+
+    // The documented search: per query word the closest recipe word within the allowed edits
+    private static List<Recipe> scan(String query, int maxEdits, int max, Recipe[] byOrdinal) {
+        String[] tokens = RecipeSearchIndex.tokenize(query.toLowerCase());
+        if (tokens.length == 0) return new ArrayList<>();
+        List<long[]> ranked = new ArrayList<>();
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] == null) continue;
+            List<String> words = words(byOrdinal[ordinal]);
+            int total = 0;
+            for (String token : tokens) {
+                int allowed = token.length() < 3 ? 0 : Math.min(maxEdits, Math.max(1, token.length() / 3));
+                int best = Integer.MAX_VALUE;
+                for (String word : words) {
+                    int d = distance(token, word);
+                    if (d <= allowed) best = Math.min(best, d);
+                }
+                if (best == Integer.MAX_VALUE) {
+                    total = -1;
+                    break;
+                }
+                total += best;
+            }
+            if (total >= 0) ranked.add(new long[]{total, ordinal});
+        }
+        ranked.sort((x, y) -> x[0] != y[0] ? Long.compare(x[0], y[0]) : Long.compare(x[1], y[1]));
+        List<Recipe> result = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < max; i++) {
+            result.add(byOrdinal[(int) ranked.get(i)[1]]);
+        }
+        return result;
+    }
+
+    private static List<String> words(Recipe recipe) {
+        List<String> texts = new ArrayList<>();
+        texts.add(recipe.getName());
+        for (Ingredient ingredient : recipe.parsedIngredients()) {
+            texts.add(ingredient.getName());
+        }
+        List<String> words = new ArrayList<>();
+        for (String text : texts) {
+            for (String token : RecipeSearchIndex.tokenize(text.toLowerCase())) {
+                if (token.length() >= 2 && !Character.isDigit(token.charAt(0))) words.add(token);
+            }
+        }
+        return words;
+    }
+
+    // Full optimal string alignment table
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static Recipe recipe(Random random, int ordinal) {
+        String name = "R" + ordinal + " " + word(random, 2 + random.nextInt(7));
+        StringBuilder ingredients = new StringBuilder();
+        for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+            ingredients.append("1 cup ").append(word(random, 2 + random.nextInt(7))).append('\n');
+        }
+        return new Recipe(name, "", ingredients.toString(), "", "Other",
+                100, 2, "servings", 5, 10, "Easy", false, "", 1, 2, 3);
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    // Up to edits random substitutions, insertions, deletions or adjacent transpositions
+    private static String mutate(Random random, String word, int edits) {
+        StringBuilder out = new StringBuilder(word);
+        for (int e = 0; e < edits; e++) {
+            int at = out.length() == 0 ? 0 : random.nextInt(out.length());
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    if (out.length() > 0) out.setCharAt(at, LETTERS.charAt(random.nextInt(LETTERS.length())));
+                }
+                case 1 -> out.insert(at, LETTERS.charAt(random.nextInt(LETTERS.length())));
+                case 2 -> {
+                    if (out.length() > 0) out.deleteCharAt(at);
+                }
+                default -> {
+                    if (at + 1 < out.length()) {
+                        char c = out.charAt(at);
+                        out.setCharAt(at, out.charAt(at + 1));
+                        out.setCharAt(at + 1, c);
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Quantities the parser must read, and the ones it must reject without throwing: digit runs
+ * too long for an int and zero denominators leave the line without a quantity.
+ */
+class IngredientParserTest {
+
+    @Test
+    void longNumbersAreNotQuantities() {
+        Ingredient longDenominator = IngredientParser.parseLine("1/99999999999 cup sugar");
+        assertFalse(longDenominator.hasQuantity());
+        assertNull(longDenominator.getUnit());
+
+        assertFalse(IngredientParser.parseLine("1/2147483648 cup sugar").hasQuantity());
+        assertFalse(IngredientParser.parseLine("12345678901 eggs").hasQuantity());
+        assertIngredient("1/999999999 cup sugar", 1.0 / 999999999, "cup", "sugar");
+    }
+
+    @Test
+    void zeroDenominatorsAreNotQuantities() {
+        assertFalse(IngredientParser.parseLine("1/0 cup flour").hasQuantity());
+        assertFalse(IngredientParser.parseLine("3/000 tsp salt").hasQuantity());
+        // The whole number still counts; only the broken fraction is dropped
+        assertEquals(1, IngredientParser.parseLine("1 1/0 cups rice").getQuantity());
+    }
+
+    @Test
+    void rangesKeepTheLowerBound() {
+        assertIngredient("2-3 cups flour", 2, "cup", "flour");
+        assertIngredient("2 - 3 tbsp olive oil", 2, "tbsp", "olive oil");
+        assertIngredient("2 to 3 eggs", 2, null, "egg");
+        assertIngredient("1/2-1 tsp chili flakes", 0.5, "tsp", "chili flake");
+    }
+
+    @Test
+    void fractionsAndVulgarFractions() {
+        assertIngredient("1/2 cup milk", 0.5, "cup", "milk");
+        assertIngredient("1 1/2 tsp salt", 1.5, "tsp", "salt");
+        assertIngredient("0.25 l water", 0.25, "l", "water");
+        assertIngredient("½ cup milk", 0.5, "cup", "milk");
+        assertIngredient("1½ cups sugar", 1.5, "cup", "sugar");
+        assertIngredient("1 ½ cups sugar", 1.5, "cup", "sugar");
+        assertIngredient("3 ¾ oz butter", 3.75, "oz", "butter");
+        assertIngredient("⅓-½ cup cream", 1.0 / 3, "cup", "cream");
+    }
+
+    private static void assertIngredient(String line, double quantity, String unit, String name) {
+        Ingredient ingredient = IngredientParser.parseLine(line);
+        assertEquals(quantity, ingredient.getQuantity(), 1e-12, line);
+        assertEquals(unit, ingredient.getUnit(), line);
+        assertEquals(name, ingredient.getName(), line);
+    }
+}
@@ -0,0 +1,121 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pantry matching against a scan of every recipe: an ingredient is covered when its name
+ * contains a pantry entry's normalized name as whole words, and recipes rank by covered
+ * share, then fewer missing, then more matched, then insertion order. Recipes are put, put
+ * again and removed between rounds, so postings and the word index must follow.
+ */
+class PantryIndexTest {
+
+    private static final String[] INGREDIENTS = {"olive oil", "oil", "sesame oil", "salt", "sea salt",
+            "egg", "green onion", "onion", "red onion", "garlic", "garlic powder", "rice", "brown rice",
+            "milk", "coconut milk", "butter", "peanut butter", "oil salt"};
+    private static final String[] PANTRY = {"3 eggs", "Olive Oil", "oil", "salt", "onion", "garlic",
+            "sea", "rice", "butter", "peanut butter", "2 cups milk", "coconut", "flour", "", "red onion", "salt oil",
+            "garlic pow", "oil sal", "green on"};
+
+    @Test
+    void matchMatchesScan() {
+        Random random = new Random(11);
+        PantryIndex index = new PantryIndex();
+        Recipe[] byOrdinal = new Recipe[250];
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                int ordinal = random.nextInt(byOrdinal.length);
+                if (byOrdinal[ordinal] != null && random.nextInt(3) == 0) {
+                    index.remove(ordinal);
+                    byOrdinal[ordinal] = null;
+                } else {
+                    byOrdinal[ordinal] = recipe(random, "R" + ordinal);
+                    index.put(ordinal, byOrdinal[ordinal]);
+                }
+            }
+            for (int q = 0; q < 300; q++) {
+                List<String> pantry = new ArrayList<>();
+                for (int i = 0, n = 1 + random.nextInt(6); i < n; i++) {
+                    pantry.add(PANTRY[random.nextInt(PANTRY.length)]);
+                }
+                int maxMissing = random.nextInt(5) - 1;
+                int max = random.nextBoolean() ? random.nextInt(8) : 1_000;
+                assertEquals(describe(scan(pantry, maxMissing, max, byOrdinal)),
+                        describe(index.match(pantry, maxMissing, max, byOrdinal)),
+                        pantry + " missing " + maxMissing + " top " + max);
+            }
+        }
+    }
+
+    private static List<PantryMatch> scan(List<String> pantry, int maxMissing, int max, Recipe[] byOrdinal) {
+        List<String> items = new ArrayList<>();
+        for (String entry : pantry) {
+            String item = IngredientParser.nameOf(entry);
+            if (!item.isEmpty()) items.add(" " + item + " ");
+        }
+        List<int[]> ranked = new ArrayList<>();
+        List<PantryMatch> matches = new ArrayList<>();
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] == null) continue;
+            // Distinct ingredients in id order, the order missing names are listed in
+            TreeMap<Integer, String> ingredients = new TreeMap<>();
+            for (Ingredient ingredient : byOrdinal[ordinal].parsedIngredients()) {
+                ingredients.put(ingredient.nameId, ingredient.getName());
+            }
+            int matched = 0;
+            List<String> missing = new ArrayList<>();
+            for (String name : ingredients.values()) {
+                boolean covered = false;
+                for (String item : items) {
+                    covered |= (" " + name + " ").contains(item);
+                }
+                if (covered) {
+                    matched++;
+                } else {
+                    missing.add(name);
+                }
+            }
+            if (matched == 0 || (maxMissing >= 0 && missing.size() > maxMissing)) continue;
+            ranked.add(new int[]{matched, ingredients.size(), ordinal, matches.size()});
+            matches.add(new PantryMatch(byOrdinal[ordinal], matched, ingredients.size(), missing));
+        }
+        ranked.sort((a, b) -> {
+            long coverage = (long) b[0] * a[1] - (long) a[0] * b[1];
+            if (coverage != 0) return Long.signum(coverage);
+            if (a[1] - a[0] != b[1] - b[0]) return Integer.compare(a[1] - a[0], b[1] - b[0]);
+            if (a[0] != b[0]) return Integer.compare(b[0], a[0]);
+            return Integer.compare(a[2], b[2]);
+        });
+        List<PantryMatch> result = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < max; i++) {
+            result.add(matches.get(ranked.get(i)[3]));
+        }
+        return result;
+    }
+
+    private static List<String> describe(List<PantryMatch> matches) {
+        List<String> lines = new ArrayList<>();
+        for (PantryMatch match : matches) {
+            lines.add(match.getRecipe().getName() + " " + match.getMatchedCount() + "/"
+                    + match.getIngredientCount() + " missing " + match.getMissing());
+        }
+        return lines;
+    }
+
+    private static Recipe recipe(Random random, String name) {
+        String[] lines = new String[random.nextInt(6)];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = (1 + random.nextInt(3)) + " cups " + INGREDIENTS[random.nextInt(INGREDIENTS.length)];
+        }
+        return new Recipe(name, "", String.join("\n", Arrays.asList(lines)), "", "Other",
+                100, 2, "servings", 5, 10, "Easy", false, "", 1, 2, 3);
+    }
+}
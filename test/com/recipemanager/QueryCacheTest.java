@@ -0,0 +1,93 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cached searchRecipes and getRecipesByCategory answers against a repository without a query
+ * cache, through random adds, updates and removes of the same recipes. Tiny caches and weight
+ * budgets make eviction part of every step. Write-behind that never flushes keeps the database
+ * out of it.
+ */
+class QueryCacheTest {
+
+    private static final String[] WORDS = {"garlic", "olive", "oil", "soup", "tofu", "rice", "lime", "mint"};
+    private static final String[] CATEGORIES = {"Dinner", "Lunch", "Soups & Stews", "Snacks"};
+    private static final String[] QUERIES = {"garlic", "oil", "olive oil", "so", "s", "mint", "lime\n",
+            "dinner", "Soups", "& stews", "tag-o", "", "qc 1", "zzz"};
+    private static final String[] CATEGORY_QUERIES = {"Dinner", "dinner", "LUNCH", "Soups & Stews", "Snacks", "Other"};
+
+    @Test
+    void cachedAnswersMatchUncached() {
+        int[][] configs = {{1, 1_000}, {4, 30}, {8, 1_000}, {256, 200_000}};
+        for (int[] config : configs) {
+            Random random = new Random(config[0] * 31L + config[1]);
+            RecipeRepository cached = repository(config[0], config[1]);
+            RecipeRepository uncached = repository(0, 0);
+            List<Recipe> live = new ArrayList<>();
+            int next = 0;
+
+            for (int step = 0; step < 3_000; step++) {
+                int action = random.nextInt(10);
+                if (action == 0 || live.size() < 20) {
+                    Recipe recipe = recipe(random, "QC " + next++ + " " + WORDS[random.nextInt(WORDS.length)]);
+                    live.add(recipe);
+                    cached.addRecipe(recipe);
+                    uncached.addRecipe(recipe);
+                } else if (action == 1) {
+                    Recipe recipe = live.remove(random.nextInt(live.size()));
+                    cached.removeRecipe(recipe);
+                    uncached.removeRecipe(recipe);
+                } else if (action == 2) {
+                    Recipe recipe = live.get(random.nextInt(live.size()));
+                    if (random.nextBoolean()) {
+                        recipe.copySummaryFrom(recipe(random, recipe.getName()));
+                    } else {
+                        recipe.addTag("tag-" + WORDS[random.nextInt(WORDS.length)]);
+                    }
+                    cached.updateRecipeInDatabase(recipe);
+                    uncached.updateRecipeInDatabase(recipe);
+                } else if (action < 7) {
+                    String query = QUERIES[random.nextInt(QUERIES.length)];
+                    assertEquals(uncached.searchRecipes(query), cached.searchRecipes(query),
+                            "search \"" + query + "\" at step " + step + " with cache " + config[0]);
+                } else {
+                    String category = CATEGORY_QUERIES[random.nextInt(CATEGORY_QUERIES.length)];
+                    assertEquals(uncached.getRecipesByCategory(category), cached.getRecipesByCategory(category),
+                            "category " + category + " at step " + step + " with cache " + config[0]);
+                }
+            }
+            assertTrue(cached.getQueryCacheStats().getHits() > 0, "cache " + config[0] + " was never hit");
+        }
+    }
+
+    // Read once by the constructor
+    private static RecipeRepository repository(int size, long weight) {
+        System.setProperty("recipemanager.queryCache.size", Integer.toString(size));
+        System.setProperty("recipemanager.queryCache.weight", Long.toString(weight));
+        try {
+            RecipeRepository repository = new RecipeRepository(false);
+            repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+            return repository;
+        } finally {
+            System.clearProperty("recipemanager.queryCache.size");
+            System.clearProperty("recipemanager.queryCache.weight");
+        }
+    }
+
+    private static Recipe recipe(Random random, String name) {
+        StringBuilder ingredients = new StringBuilder();
+        for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+            ingredients.append("1 cup ").append(WORDS[random.nextInt(WORDS.length)]).append('\n');
+        }
+        return new Recipe(name, "", ingredients.toString(), "", CATEGORIES[random.nextInt(CATEGORIES.length)],
+                100, 2, "servings", 5, 10, "Easy", false, "", 1, 2, 3);
+    }
+}
@@ -0,0 +1,164 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ranked search against BM25F recomputed from scratch over the live recipes: document
+ * counts, field lengths and document frequencies are counted again for every query, so the
+ * statistics the index keeps up to date through puts, re-puts and removes are checked too.
+ * The arithmetic is the index's own, in the same order, so scores compare exactly.
+ */
+class RankedSearchIndexTest {
+
+    private static final String[] WORDS = {"garlic", "roasted", "roast", "roasting", "chicken", "chickens",
+            "soup", "the", "and", "of", "lemon", "lemons", "creamy", "cream", "bake", "baking", "tofu", "rice"};
+    private static final float[] BOOSTS = {3.0f, 1.5f, 1.0f, 2.0f, 1.0f, 0.6f, 0.4f};
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "then", "to", "until", "with");
+
+    @Test
+    void searchMatchesRecomputedScores() {
+        Random random = new Random(7);
+        RankedSearchIndex index = new RankedSearchIndex();
+        Recipe[] byOrdinal = new Recipe[300];
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                int ordinal = random.nextInt(byOrdinal.length);
+                if (byOrdinal[ordinal] != null && random.nextInt(3) == 0) {
+                    index.remove(ordinal);
+                    byOrdinal[ordinal] = null;
+                } else {
+                    byOrdinal[ordinal] = recipe(random, "R" + ordinal);
+                    index.put(ordinal, byOrdinal[ordinal]);
+                }
+            }
+            for (int q = 0; q < 200; q++) {
+                String query = words(random, 1 + random.nextInt(3), " ");
+                int max = random.nextBoolean() ? 1 + random.nextInt(10) : 1_000;
+                assertEquals(describe(scan(query, max, byOrdinal)), describe(index.search(query, max, byOrdinal)),
+                        "\"" + query + "\" top " + max);
+            }
+        }
+    }
+
+    private static List<ScoredRecipe> scan(String query, int max, Recipe[] byOrdinal) {
+        int documents = 0;
+        long[] totalLengths = new long[RankedSearchIndex.FIELDS];
+        int[] fieldDocuments = new int[RankedSearchIndex.FIELDS];
+        Map<Integer, int[]> lengths = new HashMap<>();
+        Map<Integer, Map<String, int[]>> frequencies = new HashMap<>();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] == null) continue;
+            documents++;
+            String[] fields = fields(byOrdinal[ordinal]);
+            int[] fieldLengths = new int[fields.length];
+            Map<String, int[]> counts = new HashMap<>();
+            for (int f = 0; f < fields.length; f++) {
+                for (String term : terms(fields[f])) {
+                    fieldLengths[f]++;
+                    counts.computeIfAbsent(term, t -> new int[RankedSearchIndex.FIELDS])[f]++;
+                }
+                totalLengths[f] += fieldLengths[f];
+                if (fieldLengths[f] > 0) fieldDocuments[f]++;
+            }
+            for (String term : counts.keySet()) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+            lengths.put(ordinal, fieldLengths);
+            frequencies.put(ordinal, counts);
+        }
+        if (documents == 0) return new ArrayList<>();
+
+        float[] averages = new float[RankedSearchIndex.FIELDS];
+        for (int f = 0; f < averages.length; f++) {
+            averages[f] = fieldDocuments[f] == 0 ? 1 : (float) totalLengths[f] / fieldDocuments[f];
+        }
+        List<ScoredRecipe> scored = new ArrayList<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] == null) continue;
+            float score = 0;
+            boolean matched = false;
+            for (String term : new LinkedHashSet<>(terms(query))) {
+                int df = documentFrequency.getOrDefault(term, 0);
+                int[] freqs = frequencies.get(ordinal).get(term);
+                if (df == 0 || freqs == null) continue;
+                matched = true;
+                float idf = (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+                float tf = 0;
+                for (int f = 0; f < RankedSearchIndex.FIELDS; f++) {
+                    if (freqs[f] == 0) continue;
+                    float norm = 1 - 0.75f + 0.75f * lengths.get(ordinal)[f] / averages[f];
+                    tf += BOOSTS[f] * freqs[f] / norm;
+                }
+                score += idf * tf / (1.2f + tf);
+            }
+            if (matched) {
+                scored.add(new ScoredRecipe(byOrdinal[ordinal], score));
+                ordinals.add(ordinal);
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < scored.size(); i++) order.add(i);
+        order.sort((a, b) -> scored.get(a).getScore() != scored.get(b).getScore()
+                ? Double.compare(scored.get(b).getScore(), scored.get(a).getScore())
+                : Integer.compare(ordinals.get(a), ordinals.get(b)));
+        List<ScoredRecipe> result = new ArrayList<>();
+        for (int i = 0; i < order.size() && i < max; i++) {
+            result.add(scored.get(order.get(i)));
+        }
+        return result;
+    }
+
+    private static String[] fields(Recipe recipe) {
+        String[] text = recipe.residentText();
+        return new String[]{recipe.getName(), recipe.getIngredients(), recipe.getCategory(),
+                String.join(" ", recipe.getTags()), text[0], text[1], text[2]};
+    }
+
+    private static List<String> terms(String field) {
+        List<String> terms = new ArrayList<>();
+        if (field == null) return terms;
+        for (String token : RecipeSearchIndex.tokenize(field.toLowerCase())) {
+            if (!STOP_WORDS.contains(token)) terms.add(PorterStemmer.stem(token));
+        }
+        return terms;
+    }
+
+    private static List<String> describe(List<ScoredRecipe> ranked) {
+        List<String> lines = new ArrayList<>();
+        for (ScoredRecipe scored : ranked) {
+            lines.add(scored.getRecipe().getName() + " " + scored.getScore());
+        }
+        return lines;
+    }
+
+    private static Recipe recipe(Random random, String name) {
+        Recipe recipe = new Recipe(name + " " + words(random, 1 + random.nextInt(2), " "), words(random, random.nextInt(12), " "),
+                words(random, 1 + random.nextInt(5), "\n"), words(random, random.nextInt(20), ". "),
+                random.nextBoolean() ? "Soups & Stews" : "Dinner", 100, 2, "servings", 5, 10, "Easy", false,
+                random.nextInt(4) == 0 ? words(random, 3, " ") : "", 1, 2, 3);
+        if (random.nextBoolean()) recipe.addTag(WORDS[random.nextInt(WORDS.length)]);
+        return recipe;
+    }
+
+    private static String words(Random random, int count, String separator) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? separator : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bulk import into the H2 test database: records whose name exists, in the table or earlier
+ * in the file, are counted as skipped and leave the existing recipe's tags alone.
+ */
+class RecipeBulkIOTest {
+
+    @Test
+    void duplicateNamesAreSkippedWithTheirTags(@TempDir Path dir) throws Exception {
+        Recipe existing = new Recipe("Bulk existing", "kept", "1 cup rice", "Boil.",
+                "Dinner", 400, 2, "bowls", 5, 20, "Easy", false, "", 8, 70, 2);
+        existing.addTag("original");
+        new RecipeRepository(false).addRecipe(existing);
+
+        Path file = dir.resolve("import.jsonl");
+        Files.write(file, List.of(
+                "{\"name\":\"Bulk new 1\",\"category\":\"Lunch\",\"tags\":[\"fresh\"]}",
+                "{\"name\":\"Bulk existing\",\"category\":\"Lunch\",\"tags\":[\"intruder\"]}",
+                "{\"name\":\"Bulk new 2\",\"category\":\"Lunch\",\"calories\":\"many\"}",
+                "{\"name\":\"Bulk new 1\",\"category\":\"Lunch\",\"tags\":[\"again\"]}",
+                "{\"name\":\"Bulk new 3\",\"category\":\"Lunch\"}"));
+
+        BulkProgress progress = new RecipeBulkIO(2, 2).importFile(file, null);
+        assertEquals(2, progress.getRows());
+        assertEquals(3, progress.getSkipped());
+
+        RecipeRepository reloaded = new RecipeRepository();
+        assertEquals("kept", reloaded.findByName("Bulk existing").getDescription());
+        assertEquals(List.of("original"), reloaded.findByName("Bulk existing").getTags());
+        assertEquals(List.of("fresh"), reloaded.findByName("Bulk new 1").getTags());
+        assertEquals(List.of(), reloaded.findByName("Bulk new 3").getTags());
+    }
+}
@@ -0,0 +1,361 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writers add, remove and update recipes while readers query, against a repository filled
+ * through {@link RecipeRepository#replaceAll} with write-behind that never flushes, so no
+ * database is involved.
+ *
+ * Every operation takes a tick of a shared clock before it starts and after it ends. A reader
+ * checks each result against that history: a recipe in a result must have been present, and
+ * match the query, at some tick of the call; a recipe that was present and matching for the
+ * whole call must be in it. Once the writers stopped, every query must equal the writers'
+ * final state exactly.
+ *
+ * A second case edits recipes loaded from the test database while another thread keeps
+ * refreshing: no refresh may put the database's older values back over an edit that
+ * write-behind has not written yet.
+ */
+class RecipeRepositoryStressTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPERATIONS = 3_000;
+    private static final int INITIAL = 2_000;
+    // Name words and tags are drawn from these; "zq" and "zt" occur nowhere else in the data
+    private static final int WORDS = 16;
+    private static final int TAGS = 8;
+    private static final String[] CATEGORIES = {"Breakfast", "Lunch", "Dinner", "Desserts", "Snacks"};
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Recipe, History> histories = new ConcurrentHashMap<>();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    // When one recipe was added and removed, and when each tag was added to it
+    private static final class History {
+        final int word;
+        volatile long addStart;
+        volatile long addEnd;
+        volatile long removeStart = Long.MAX_VALUE;
+        volatile long removeEnd = Long.MAX_VALUE;
+        final Map<String, long[]> tagged = new ConcurrentHashMap<>();
+
+        History(int word) {
+            this.word = word;
+        }
+
+        boolean presentThroughout(long from, long to) {
+            return addEnd != 0 && addEnd < from && removeStart > to;
+        }
+
+        boolean possiblyPresent(long from, long to) {
+            return addStart < to && removeEnd > from;
+        }
+    }
+
+    @Test
+    void concurrentWritesAndReadsStayConsistent() throws Exception {
+        RecipeRepository repository = new RecipeRepository(false);
+        // Writes are queued and coalesced but never flushed: the test only exercises memory
+        repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+
+        List<Recipe> initial = new ArrayList<>();
+        for (int i = 0; i < INITIAL; i++) {
+            Recipe recipe = recipe("Initial " + i, i % WORDS, CATEGORIES[i % CATEGORIES.length]);
+            History history = new History(i % WORDS);
+            history.addStart = clock.incrementAndGet();
+            history.addEnd = history.addStart;
+            histories.put(recipe, history);
+            initial.add(recipe);
+        }
+        repository.replaceAll(initial);
+
+        List<List<Recipe>> owned = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            owned.add(new ArrayList<>());
+        }
+        for (int i = 0; i < INITIAL; i++) {
+            owned.get(i % WRITERS).add(initial.get(i));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> write(repository, writer, owned.get(writer), start)));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            int reader = r;
+            readers.add(new Thread(() -> read(repository, reader, writing, start)));
+        }
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " inconsistent reads, first: " + failures.peek());
+        assertFinalState(repository, owned);
+    }
+
+    @Test
+    void refreshKeepsUnflushedEdits() throws Exception {
+        int count = 200;
+        RecipeRepository seeding = new RecipeRepository(false);
+        seeding.enableWriteBehind(count, TimeUnit.HOURS.toMillis(1));
+        for (int i = 0; i < count; i++) {
+            seeding.addRecipe(recipe("Refresh " + i, 0, CATEGORIES[i % CATEGORIES.length]));
+        }
+        seeding.close();
+
+        // Loaded from the database, so refresh() pulls deltas; every row is inside its overlap window
+        RecipeRepository repository = new RecipeRepository();
+        repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        Map<String, Double> ratings = new ConcurrentHashMap<>();
+        Map<String, String> notes = new ConcurrentHashMap<>();
+        AtomicBoolean editing = new AtomicBoolean(true);
+
+        Thread refresher = new Thread(() -> {
+            while (editing.get()) {
+                repository.refresh();
+            }
+        });
+        refresher.start();
+        SplittableRandom random = new SplittableRandom(7);
+        try {
+            for (int op = 0; op < 2_000; op++) {
+                String name = "Refresh " + random.nextInt(count) + " " + word(0);
+                Recipe recipe = repository.findByName(name);
+                if (recipe == null) continue;
+                double rating = op % 5 + 1;
+                recipe.setRating(rating);
+                recipe.setNotes("edit " + op);
+                repository.updateRecipeInDatabase(recipe);
+                ratings.put(name, rating);
+                notes.put(name, "edit " + op);
+                if (op % 250 == 249) {
+                    repository.flush();
+                }
+            }
+        } finally {
+            editing.set(false);
+            refresher.join();
+        }
+        repository.close();
+
+        RecipeRepository reloaded = new RecipeRepository();
+        for (Map.Entry<String, Double> e : ratings.entrySet()) {
+            String name = e.getKey();
+            assertEquals(e.getValue(), repository.findByName(name).getRating(), "rating of " + name + " in memory");
+            assertEquals(notes.get(name), repository.findByName(name).getNotes(), "notes of " + name + " in memory");
+            assertEquals(e.getValue(), reloaded.findByName(name).getRating(), "rating of " + name + " in the database");
+            assertEquals(notes.get(name), reloaded.findByName(name).getNotes(), "notes of " + name + " in the database");
+        }
+    }
+
+    // Each writer only touches its own recipes, so its list is the expected final state
+    private void write(RecipeRepository repository, int writer, List<Recipe> live, CountDownLatch start) {
+        SplittableRandom random = new SplittableRandom(writer);
+        await(start);
+        for (int op = 0; op < OPERATIONS; op++) {
+            int action = random.nextInt(3);
+            if (action == 0 || live.isEmpty()) {
+                int word = random.nextInt(WORDS);
+                Recipe recipe = recipe("Writer " + writer + " recipe " + op, word,
+                        CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                History history = new History(word);
+                history.addStart = clock.incrementAndGet();
+                histories.put(recipe, history);
+                repository.addRecipe(recipe);
+                history.addEnd = clock.incrementAndGet();
+                live.add(recipe);
+            } else if (action == 1) {
+                Recipe recipe = live.remove(random.nextInt(live.size()));
+                History history = histories.get(recipe);
+                history.removeStart = clock.incrementAndGet();
+                repository.removeRecipe(recipe);
+                history.removeEnd = clock.incrementAndGet();
+            } else {
+                Recipe recipe = live.get(random.nextInt(live.size()));
+                String tag = tag(random.nextInt(TAGS));
+                if (recipe.hasTag(tag)) continue;
+                long[] span = {clock.incrementAndGet(), Long.MAX_VALUE};
+                histories.get(recipe).tagged.put(tag, span);
+                recipe.addTag(tag);
+                recipe.setRating(op % 5 + 1);
+                repository.updateRecipeInDatabase(recipe);
+                span[1] = clock.incrementAndGet();
+            }
+        }
+    }
+
+    private void read(RecipeRepository repository, int reader, AtomicBoolean writing, CountDownLatch start) {
+        SplittableRandom random = new SplittableRandom(100 + reader);
+        await(start);
+        while (writing.get()) {
+            int action = random.nextInt(4);
+            long from = clock.incrementAndGet();
+            if (action == 0) {
+                int word = random.nextInt(WORDS);
+                List<Recipe> result = repository.searchRecipes(word(word));
+                long to = clock.incrementAndGet();
+                check("search " + word(word), result, from, to, h -> h.word == word, h -> h.word == word);
+            } else if (action == 1) {
+                String tag = tag(random.nextInt(TAGS));
+                List<Recipe> result = repository.searchRecipes(tag);
+                long to = clock.incrementAndGet();
+                check("search " + tag, result, from, to,
+                        h -> h.tagged.containsKey(tag) && h.tagged.get(tag)[0] < to,
+                        h -> h.tagged.containsKey(tag) && h.tagged.get(tag)[1] < from);
+            } else if (action == 2) {
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                List<Recipe> result = repository.getRecipesByCategory(category.toUpperCase());
+                long to = clock.incrementAndGet();
+                check("category " + category, result, from, to,
+                        h -> true, h -> true, category);
+            } else {
+                List<Recipe> result = repository.getAllRecipes();
+                long to = clock.incrementAndGet();
+                check("all", result, from, to, h -> true, h -> true);
+            }
+        }
+    }
+
+    private void check(String query, List<Recipe> result, long from, long to,
+                       Predicate<History> mayMatch, Predicate<History> mustMatch) {
+        check(query, result, from, to, mayMatch, mustMatch, null);
+    }
+
+    /*
+     * mayMatch: the recipe matched the query at some tick before the call ended.
+     * mustMatch: the recipe matched it for the whole call. Categories never change, so a
+     * category query filters by the recipe's category in both cases.
+     */
+    private void check(String query, List<Recipe> result, long from, long to,
+                       Predicate<History> mayMatch, Predicate<History> mustMatch, String category) {
+        Set<Recipe> returned = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Recipe recipe : result) {
+            if (!returned.add(recipe)) {
+                failures.add(query + ": " + recipe.getName() + " returned twice");
+                return;
+            }
+            History history = histories.get(recipe);
+            if (history == null || !history.possiblyPresent(from, to)) {
+                failures.add(query + ": " + recipe.getName() + " was not in the repository during the call");
+                return;
+            }
+            if (!mayMatch.test(history) || (category != null && !category.equals(recipe.getCategory()))) {
+                failures.add(query + ": " + recipe.getName() + " did not match during the call");
+                return;
+            }
+        }
+        for (Map.Entry<Recipe, History> e : histories.entrySet()) {
+            Recipe recipe = e.getKey();
+            History history = e.getValue();
+            if (history.presentThroughout(from, to) && mustMatch.test(history)
+                    && (category == null || category.equals(recipe.getCategory()))
+                    && !returned.contains(recipe)) {
+                failures.add(query + ": " + recipe.getName() + " is missing");
+                return;
+            }
+        }
+    }
+
+    private static void assertFinalState(RecipeRepository repository, List<List<Recipe>> owned) {
+        List<Recipe> expected = new ArrayList<>();
+        owned.forEach(expected::addAll);
+
+        assertEquals(identitySet(expected), identitySet(repository.getAllRecipes()), "recipes after the writers stopped");
+        for (Recipe recipe : expected) {
+            assertSame(recipe, repository.findByName(recipe.getName()));
+        }
+        for (int word = 0; word < WORDS; word++) {
+            int w = word;
+            assertEquals(identitySet(filter(expected, r -> r.getName().endsWith(" " + word(w)))),
+                    identitySet(repository.searchRecipes(word(w))), "search " + word(w));
+        }
+        for (int t = 0; t < TAGS; t++) {
+            String tag = tag(t);
+            assertEquals(identitySet(filter(expected, r -> r.hasTag(tag))),
+                    identitySet(repository.searchRecipes(tag)), "search " + tag);
+            assertEquals(identitySet(filter(expected, r -> r.hasTag(tag))),
+                    identitySet(repository.filterRecipes(new FacetQuery().tag(tag))), "tag facet " + tag);
+        }
+        for (String category : CATEGORIES) {
+            assertEquals(identitySet(filter(expected, r -> r.getCategory().equals(category))),
+                    identitySet(repository.getRecipesByCategory(category)), "category " + category);
+        }
+        // The last rating each writer set must have reached the columnar store
+        for (int rating = 0; rating <= 5; rating++) {
+            int value = rating;
+            NutritionFilter exact = new NutritionFilter().between(Nutrient.RATING, value, value);
+            assertEquals(identitySet(filter(expected, r -> r.getRating() == value)),
+                    identitySet(repository.filterByNutrition(exact)), "rating " + value);
+        }
+    }
+
+    private static List<Recipe> filter(List<Recipe> recipes, Predicate<Recipe> test) {
+        List<Recipe> result = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            if (test.test(recipe)) result.add(recipe);
+        }
+        return result;
+    }
+
+    private static Set<Recipe> identitySet(Collection<Recipe> recipes) {
+        Set<Recipe> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(recipes);
+        assertEquals(recipes.size(), set.size(), "duplicate recipes");
+        return set;
+    }
+
+    private static Recipe recipe(String name, int word, String category) {
+        return new Recipe(name + " " + word(word), "", "1 cup water\n2 tbsp olive oil", "Mix.",
+                category, 200, 2, "servings", 10, 20, "Easy", false, "", 5, 20, 8);
+    }
+
+    private static String word(int word) {
+        return "zq" + (char) ('a' + word) + "x";
+    }
+
+    private static String tag(int tag) {
+        return "zt" + (char) ('a' + tag) + "x";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The substring index against a scan of {@link RecipeSearchIndex#matches} over the recipes in
+ * insertion order, through adds, updates and enough removes to renumber the ids.
+ */
+class RecipeSearchIndexTest {
+
+    private static final String[] WORDS = {"garlic", "gar", "lic", "olive", "oil", "oi", "soup",
+            "a", "ab", "abc", "cab", "bca", "tofu", "to", "fu", "2", "250g", "crème", "Ölig"};
+    private static final String[] SEPARATORS = {" ", "\n", ", ", "-", "/"};
+    private static final String[] CATEGORIES = {"Dinner", "Soups & Stews", "Asian Cuisine", "Other"};
+    private static final String[] FIXED_QUERIES = {"", " ", ",", "\n", "a b", "gar lic", "garlic oil",
+            "c", "ol", "LIC", "soups &", "& st", "-", "crè", "öl", "250", "0g"};
+
+    @Test
+    void searchMatchesSubstringScan() {
+        Random random = new Random(42);
+        RecipeSearchIndex index = new RecipeSearchIndex();
+        List<Recipe> model = new ArrayList<>();
+        int next = 0;
+
+        for (int round = 0; round < 6; round++) {
+            for (int i = 0; i < 300; i++) {
+                Recipe recipe = recipe(random, "R" + next++);
+                index.add(recipe);
+                model.add(recipe);
+            }
+            for (int i = 0; i < 200; i++) {
+                Recipe recipe = model.get(random.nextInt(model.size()));
+                if (random.nextBoolean()) {
+                    recipe.copySummaryFrom(recipe(random, recipe.getName()));
+                } else {
+                    recipe.addTag(WORDS[random.nextInt(WORDS.length)].toLowerCase());
+                }
+                index.update(recipe);
+            }
+            // Most of the collection goes, so the ids get renumbered
+            int keep = round % 2 == 0 ? model.size() / 5 : model.size() / 2;
+            while (model.size() > keep) {
+                index.remove(model.remove(random.nextInt(model.size())));
+            }
+            assertSearches(random, index, model);
+        }
+
+        index.clear();
+        model.clear();
+        for (int i = 0; i < 100; i++) {
+            Recipe recipe = recipe(random, "C" + i);
+            index.add(recipe);
+            model.add(recipe);
+        }
+        assertSearches(random, index, model);
+    }
+
+    private static void assertSearches(Random random, RecipeSearchIndex index, List<Recipe> model) {
+        List<String> queries = new ArrayList<>(List.of(FIXED_QUERIES));
+        for (String word : WORDS) {
+            queries.add(word);
+        }
+        for (int i = 0; i < 300; i++) {
+            Recipe recipe = model.get(random.nextInt(model.size()));
+            String text = random.nextBoolean() ? recipe.getIngredients() : recipe.getName() + " " + recipe.getCategory();
+            int from = random.nextInt(text.length());
+            String query = text.substring(from, Math.min(text.length(), from + 1 + random.nextInt(12)));
+            queries.add(random.nextBoolean() ? query : query.toUpperCase());
+        }
+        for (String query : queries) {
+            String lowerQuery = query.toLowerCase();
+            List<Recipe> expected = new ArrayList<>();
+            for (Recipe recipe : model) {
+                if (RecipeSearchIndex.matches(recipe, lowerQuery)) {
+                    expected.add(recipe);
+                }
+            }
+            assertEquals(expected, index.search(query), "query \"" + query + "\"");
+        }
+    }
+
+    private static Recipe recipe(Random random, String name) {
+        StringBuilder ingredients = new StringBuilder();
+        for (int i = 0, n = 1 + random.nextInt(8); i < n; i++) {
+            ingredients.append(WORDS[random.nextInt(WORDS.length)]).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        String fullName = name + " " + WORDS[random.nextInt(WORDS.length)];
+        return new Recipe(fullName, "", ingredients.toString(), "", CATEGORIES[random.nextInt(CATEGORIES.length)],
+                100, 2, "servings", 5, 10, "Easy", false, "", 1, 2, 3);
+    }
+}
@@ -0,0 +1,77 @@
+package com.recipemanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write-behind against the H2 test database: a change the database rejects is dropped
+ * without holding back the rest of its batch, and inserted recipes learn their ids.
+ */
+class RecipeWriteBehindTest {
+
+    @Test
+    void rejectedChangeDoesNotBlockItsBatch() throws Exception {
+        // Another instance already inserted this name
+        new RecipeRepository(false).addRecipe(recipe("WB clash", "first"));
+
+        RecipeRepository repository = new RecipeRepository(false);
+        repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        repository.addRecipe(recipe("WB clash", "second"));
+        for (int i = 0; i < 10; i++) {
+            repository.addRecipe(recipe("WB batch " + i, "batch"));
+        }
+        assertThrows(SQLException.class, repository::flush);
+        // Dropped rather than requeued: nothing is left to fail
+        repository.flush();
+        repository.close();
+
+        RecipeRepository reloaded = new RecipeRepository();
+        assertEquals("first", reloaded.findByName("WB clash").getDescription());
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(reloaded.findByName("WB batch " + i), "WB batch " + i);
+            assertTrue(repository.findByName("WB batch " + i).getId() > 0, "id of WB batch " + i);
+        }
+    }
+
+    @Test
+    void tombstoneFindsRecipeInsertedThroughWriteBehind() throws Exception {
+        RecipeRepository repository = new RecipeRepository();
+        repository.enableWriteBehind(Integer.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+        Recipe recipe = recipe("WB tombstoned", "gone soon");
+        repository.addRecipe(recipe);
+        repository.flush();
+        assertTrue(recipe.getId() > 0);
+
+        // Deleted by another instance; H2 has no trigger, so write the tombstone by hand
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM recipes WHERE id = ?")) {
+                delete.setInt(1, recipe.getId());
+                delete.executeUpdate();
+            }
+            try (PreparedStatement tombstone = conn.prepareStatement(
+                    "INSERT INTO recipe_tombstones (recipe_id, name) VALUES (?, ?)")) {
+                tombstone.setInt(1, recipe.getId());
+                tombstone.setString(2, recipe.getName());
+                tombstone.executeUpdate();
+            }
+        }
+        repository.refresh();
+        assertNull(repository.findByName("WB tombstoned"));
+        repository.close();
+    }
+
+    private static Recipe recipe(String name, String description) {
+        return new Recipe(name, description, "2 cups flour\n1 tsp salt", "Bake.",
+                "Baked Goods", 300, 4, "slices", 10, 30, "Easy", false, "", 6, 40, 9);
+    }
+}